@@ -1,15 +1,10 @@
 package com.github.valdr;
 
-import com.google.common.collect.Lists;
 import org.reflections.ReflectionUtils;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.function.Predicate;
+import java.util.Map;
 
 /**
  * Wrapper around a class with Bean Validation (and possibly other) annotations. Allows to extract validation rules
@@ -17,20 +12,29 @@ import java.util.function.Predicate;
  */
 public class AnnotatedClass {
   private final Class clazz;
-  private final List<String> excludedFields;
-  private final Iterable<Class<? extends Annotation>> relevantAnnotationClasses;
+  private final DeclaredConstraints declaredConstraints;
 
   /**
    * @param clazz                     wrapped class
-   * @param excludedFields            collection of fully qualified field names which are skipped by the parser
+   * @param excludedFields            collection of fully qualified field names or patterns which are skipped by the
+   *                                  parser, see {@link FieldExclusions}
    * @param relevantAnnotationClasses only these annotation classes are considered when {@link
    *                                  AnnotatedClass#extractValidationRules()} is invoked
    */
   AnnotatedClass(Class clazz, List<String> excludedFields, Iterable<Class<? extends Annotation>>
           relevantAnnotationClasses) {
+    this(clazz, new DeclaredConstraints(new FieldExclusions(excludedFields),
+      new ConstraintHandlers(relevantAnnotationClasses)));
+  }
+
+  /**
+   * @param clazz               wrapped class
+   * @param declaredConstraints memo of the constraints declared by each class, shared with the other classes parsed
+   *                            in the same pass
+   */
+  AnnotatedClass(Class clazz, DeclaredConstraints declaredConstraints) {
     this.clazz = clazz;
-    this.excludedFields = excludedFields;
-    this.relevantAnnotationClasses = relevantAnnotationClasses;
+    this.declaredConstraints = declaredConstraints;
   }
 
   /**
@@ -42,33 +46,19 @@ public class AnnotatedClass {
   ClassConstraints extractValidationRules() {
     final ClassConstraints classConstraints = new ClassConstraints();
 
-    buildAnnotationsPredicate().ifPresent(annotationsPredicate -> {
-      Set<Field> allFields = ReflectionUtils.getAllFields(clazz, annotationsPredicate);
-      for (Field field : allFields) {
-        if (isNotExcluded(field)) {
-          FieldConstraints fieldValidationRules = new AnnotatedField(field,
-                  relevantAnnotationClasses).extractValidationRules();
-          if (fieldValidationRules.size() > 0) {
-            classConstraints.put(field.getName(), fieldValidationRules);
-          }
-        }
-      }
-    });
+    // same order as ReflectionUtils.getAllFields: the class itself, then its supertypes breadth first; fields of
+    // superclasses replace fields of subclasses with the same name
+    putAll(declaredConstraints.of(clazz), classConstraints);
+    for (Class<?> superType : ReflectionUtils.getAllSuperTypes(clazz)) {
+      putAll(declaredConstraints.of(superType), classConstraints);
+    }
 
     return classConstraints;
   }
 
-  private boolean isNotExcluded(Field field) {
-    String fullyQualifiedFieldName = field.getDeclaringClass().getName() + "#" + field.getName();
-    return !excludedFields.contains(fullyQualifiedFieldName);
-  }
-
-  private Optional<Predicate<Field>> buildAnnotationsPredicate() {
-    Collection<Predicate<Field>> predicates = Lists.newArrayList();
-    for (Class<? extends Annotation> annotationClass : relevantAnnotationClasses) {
-      predicates.add(ReflectionUtils.withAnnotation(annotationClass));
+  private void putAll(List<Map.Entry<String, FieldConstraints>> fieldConstraints, ClassConstraints classConstraints) {
+    for (Map.Entry<String, FieldConstraints> entry : fieldConstraints) {
+      classConstraints.put(entry.getKey(), entry.getValue());
     }
-
-    return predicates.stream().reduce(Predicate::or);
   }
 }
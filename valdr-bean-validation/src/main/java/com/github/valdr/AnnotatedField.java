@@ -1,7 +1,5 @@
 package com.github.valdr;
 
-import com.google.common.collect.Iterables;
-
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
@@ -11,7 +9,7 @@ import java.lang.reflect.Field;
  */
 public class AnnotatedField {
   private final Field field;
-  private final Iterable<Class<? extends Annotation>> relevantAnnotationClasses;
+  private final ConstraintHandlers constraintHandlers;
 
   /**
    * @param field                     wrapped field
@@ -19,8 +17,17 @@ public class AnnotatedField {
    *                                  AnnotatedField#extractValidationRules()} is invoked
    */
   AnnotatedField(Field field, Iterable<Class<? extends Annotation>> relevantAnnotationClasses) {
+    this(field, new ConstraintHandlers(relevantAnnotationClasses));
+  }
+
+  /**
+   * @param field              wrapped field
+   * @param constraintHandlers only the annotation classes registered there are considered when {@link
+   *                           AnnotatedField#extractValidationRules()} is invoked
+   */
+  AnnotatedField(Field field, ConstraintHandlers constraintHandlers) {
     this.field = field;
-    this.relevantAnnotationClasses = relevantAnnotationClasses;
+    this.constraintHandlers = constraintHandlers;
   }
 
   /**
@@ -30,20 +37,22 @@ public class AnnotatedField {
    * @see AnnotatedField(Class, Iterable)
    */
   FieldConstraints extractValidationRules() {
-    Annotation[] annotations = field.getAnnotations();
+    return extractValidationRules(field.getAnnotations());
+  }
+
+  /**
+   * Same as {@link #extractValidationRules()} but for annotations of the field which have already been read.
+   *
+   * @param annotations annotations of the wrapped field, including irrelevant ones
+   * @return validation rules (one per relevant annotation)
+   */
+  FieldConstraints extractValidationRules(Annotation[] annotations) {
     FieldConstraints fieldConstraints = new FieldConstraints();
 
     for (Annotation annotation : annotations) {
-      if (Iterables.contains(relevantAnnotationClasses, annotation.annotationType())) {
-        ConstraintAttributes constraintAttributes = new ConstraintAttributes(annotation);
-        BuiltInConstraint supportedValidator = BuiltInConstraint.valueOfAnnotationClassOrNull(annotation
-          .annotationType());
-        if (supportedValidator == null) {
-          fieldConstraints.put(annotation.annotationType().getName(), constraintAttributes);
-        } else {
-          fieldConstraints.put(supportedValidator.toString(),
-            supportedValidator.createDecoratorFor(constraintAttributes));
-        }
+      ConstraintHandlers.ConstraintHandler handler = constraintHandlers.get(annotation.annotationType());
+      if (handler != null) {
+        fieldConstraints.put(handler.getName(), handler.getSharedAttributes(annotation));
       }
     }
 
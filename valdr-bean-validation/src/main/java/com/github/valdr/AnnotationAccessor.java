@@ -0,0 +1,110 @@
+package com.github.valdr;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Reads the attributes of annotations of one type. The attribute methods are discovered once per annotation type,
+ * attributes which are irrelevant for valdr ({@code groups} and {@code payload}) are dropped upfront. The remaining
+ * methods are turned into method handles, only methods which can not be accessed that way are invoked reflectively.
+ * <p>Accessors are not cached globally, since a static cache in this library would keep the class loader of the web
+ * application reachable through the annotation types. Their owner, typically {@link ConstraintHandlers}, keeps one per
+ * annotation type for as long as it is used.
+ */
+final class AnnotationAccessor {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Annotation.class);
+
+  private final String[] names;
+  private final MethodHandle[] getters;
+  private final Method[] methods;
+
+  /**
+   * Constructor.
+   *
+   * @param annotationType annotation type whose attributes are read
+   */
+  AnnotationAccessor(Class<? extends Annotation> annotationType) {
+    List<Method> attributeMethods = new ArrayList<>();
+    for (Method method : annotationType.getDeclaredMethods()) {
+      if (isAttribute(method)) {
+        attributeMethods.add(method);
+      }
+    }
+    names = new String[attributeMethods.size()];
+    getters = new MethodHandle[attributeMethods.size()];
+    methods = new Method[attributeMethods.size()];
+    for (int i = 0; i < attributeMethods.size(); i++) {
+      Method method = attributeMethods.get(i);
+      names[i] = method.getName();
+      methods[i] = method;
+      getters[i] = toGetter(method);
+    }
+  }
+
+  /**
+   * @return number of relevant attributes
+   */
+  int size() {
+    return names.length;
+  }
+
+  /**
+   * @param annotation annotation of the type of this accessor
+   * @return values of the relevant attributes, in the order of the attribute names
+   */
+  Object[] readValues(Annotation annotation) {
+    Object[] values = new Object[names.length];
+    for (int i = 0; i < names.length; i++) {
+      values[i] = getValue(annotation, i);
+    }
+    return values;
+  }
+
+  /**
+   * Puts the values read by {@link #readValues(Annotation)} into the passed map.
+   *
+   * @param values values of the relevant attributes
+   * @param target receives attribute name to value
+   */
+  void copyAttributes(Object[] values, Map<String, Object> target) {
+    for (int i = 0; i < names.length; i++) {
+      target.put(names[i], values[i]);
+    }
+  }
+
+  private Object getValue(Annotation annotation, int index) {
+    try {
+      MethodHandle getter = getters[index];
+      return getter == null ? methods[index].invoke(annotation) : (Object) getter.invokeExact(annotation);
+    } catch (Throwable e) {
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      throw new IllegalStateException("Could not obtain annotation attribute values", e);
+    }
+  }
+
+  private static boolean isAttribute(Method method) {
+    return method.getParameterCount() == 0 && method.getReturnType() != void.class
+      && !Modifier.isStatic(method.getModifiers()) && !method.isSynthetic()
+      && !"groups".equals(method.getName()) && !"payload".equals(method.getName());
+  }
+
+  private static MethodHandle toGetter(Method method) {
+    try {
+      if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+        method.setAccessible(true);
+      }
+      return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+    } catch (IllegalAccessException | RuntimeException e) {
+      return null;
+    }
+  }
+}
@@ -6,6 +6,9 @@ import com.github.valdr.decorator.PatternDecorator;
 
 import java.lang.annotation.Annotation;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jakarta.validation.constraints.Digits;
@@ -19,7 +22,6 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 import lombok.Getter;
-import lombok.SneakyThrows;
 
 /**
  * <p> All constraints currently supported out-of-the-box by valdr Bean Validation.
@@ -52,7 +54,7 @@ public enum BuiltInConstraint {
   /**
    * Pattern validation constraint.
    */
-  PATTERN("pattern", Pattern.class, PatternDecorator.class),
+  PATTERN("pattern", Pattern.class, PatternDecorator::new),
   /**
    * Date/Time in the future validation constraint.
    */
@@ -71,19 +73,28 @@ public enum BuiltInConstraint {
   URL("hibernateUrl", org.hibernate.validator.constraints.URL.class);
   // CHECKSTYLE:ON
 
+  private static final Map<Class<? extends Annotation>, BuiltInConstraint> BY_ANNOTATION_CLASS =
+    new IdentityHashMap<>();
+
+  static {
+    for (BuiltInConstraint builtInConstraint : values()) {
+      BY_ANNOTATION_CLASS.put(builtInConstraint.getBeanValidationAnnotation(), builtInConstraint);
+    }
+  }
+
   @Getter
   private final Class<? extends Annotation> beanValidationAnnotation;
-  private final Class<? extends AbstractConstraintAttributesDecorator> decorator;
+  private final Function<ConstraintAttributes, AbstractConstraintAttributesDecorator> decoratorFactory;
   private final String camelCaseName;
 
   BuiltInConstraint(String camelCaseName, Class<? extends Annotation> beanValidationAnnotation) {
-    this(camelCaseName, beanValidationAnnotation, NullDecorator.class);
+    this(camelCaseName, beanValidationAnnotation, NullDecorator::new);
   }
 
   BuiltInConstraint(String camelCaseName, Class<? extends Annotation> beanValidationAnnotation,
-    Class<? extends AbstractConstraintAttributesDecorator> decorator) {
+    Function<ConstraintAttributes, AbstractConstraintAttributesDecorator> decoratorFactory) {
     this.camelCaseName = camelCaseName;
-    this.decorator = decorator;
+    this.decoratorFactory = decoratorFactory;
     this.beanValidationAnnotation = beanValidationAnnotation;
   }
 
@@ -98,9 +109,8 @@ public enum BuiltInConstraint {
    * @param attributes the attributes to decorate
    * @return decorator
    */
-  @SneakyThrows(ReflectiveOperationException.class)
   public AbstractConstraintAttributesDecorator createDecoratorFor(ConstraintAttributes attributes) {
-    return decorator.getConstructor(ConstraintAttributes.class).newInstance(attributes);
+    return decoratorFactory.apply(attributes);
   }
 
   /**
@@ -124,11 +134,6 @@ public enum BuiltInConstraint {
    * @return enum value matching the passed annotation or null
    */
   public static BuiltInConstraint valueOfAnnotationClassOrNull(Class<? extends Annotation> beanValidationAnnotation) {
-    for (BuiltInConstraint supportedValidator : values()) {
-      if (supportedValidator.getBeanValidationAnnotation().equals(beanValidationAnnotation)) {
-        return supportedValidator;
-      }
-    }
-    return null;
+    return BY_ANNOTATION_CLASS.get(beanValidationAnnotation);
   }
 }
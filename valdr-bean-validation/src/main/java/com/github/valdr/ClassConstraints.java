@@ -5,10 +5,10 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * Maps field name to constraints (Bean Validation annotations).
+ * Maps field name to constraints (Bean Validation annotations). Mutable until {@link #freeze() frozen}.
  */
 public class ClassConstraints implements MinimalMap<FieldConstraints> {
-  private final Map<String, FieldConstraints> map = new HashMap<>();
+  private Map<String, FieldConstraints> map = new HashMap<>();
 
   @Override
   public Set<Map.Entry<String, FieldConstraints>> entrySet() {
@@ -24,4 +24,20 @@ public class ClassConstraints implements MinimalMap<FieldConstraints> {
   public int size() {
     return map.size();
   }
+
+  /**
+   * Replaces the map by a {@link FrozenMap} with the same iteration order and freezes the constraints of all fields.
+   * Freezing frozen constraints has no effect.
+   *
+   * @return this instance, immutable from now on
+   */
+  ClassConstraints freeze() {
+    if (!(map instanceof FrozenMap)) {
+      for (FieldConstraints fieldConstraints : map.values()) {
+        fieldConstraints.freeze();
+      }
+      map = FrozenMap.of(map);
+    }
+    return this;
+  }
 }
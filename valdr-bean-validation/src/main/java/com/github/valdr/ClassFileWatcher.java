@@ -0,0 +1,244 @@
+package com.github.valdr;
+
+import javassist.bytecode.ClassFile;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>Watches the class files of the model packages in classpath directories (e.g. an exploded {@code
+ * WEB-INF/classes}) through a {@link WatchService} and reports which classes changed.
+ * <p>Changes are collected until no further change arrived for a quiet period, so that a recompilation of many
+ * classes is reported at once. The subclasses of changed or removed classes are reported as changed as well, since
+ * they inherit the fields of their superclasses. To find them the watcher reads the superclass of each watched class
+ * file. Subclasses outside of the watched directories are not found.
+ */
+final class ClassFileWatcher implements Closeable {
+  private final Logger logger = LoggerFactory.getLogger(ClassFileWatcher.class);
+
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> rootsByKey = new HashMap<>();
+  private final Map<String, String> superclasses = new HashMap<>();
+  private final Listener listener;
+  private final long quietPeriodMillis;
+  private final Thread thread;
+
+  /**
+   * Constructor. Registers the package directories below the passed roots, which are watched once the watcher is
+   * {@link #start() started}.
+   *
+   * @param roots             classpath directories
+   * @param packageNames      names of the packages to watch, including their sub-packages
+   * @param listener          is notified about the changed classes
+   * @param quietPeriodMillis time without further changes after which the collected changes are reported
+   * @throws IOException if the directories can not be registered
+   */
+  ClassFileWatcher(Collection<Path> roots, Collection<String> packageNames, Listener listener, long quietPeriodMillis)
+    throws IOException {
+    this.watchService = FileSystems.getDefault().newWatchService();
+    this.listener = listener;
+    this.quietPeriodMillis = quietPeriodMillis;
+    try {
+      for (Path root : roots) {
+        for (String packageName : packageNames) {
+          Path packageDirectory = root.resolve(StringUtils.replace(packageName, ".", "/"));
+          if (StringUtils.isNotEmpty(packageName) && Files.isDirectory(packageDirectory)) {
+            register(root, packageDirectory, new HashSet<>());
+          }
+        }
+      }
+    } catch (IOException e) {
+      watchService.close();
+      throw e;
+    }
+    this.thread = new Thread(this::watch, "valdr-class-file-watcher");
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Starts watching on a background thread.
+   */
+  void start() {
+    thread.start();
+  }
+
+  /**
+   * Stops watching.
+   */
+  @Override
+  public void close() throws IOException {
+    thread.interrupt();
+    watchService.close();
+  }
+
+  private void watch() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Map<Path, Path> changedFiles = new HashMap<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+          collect(key, changedFiles);
+          key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS);
+        }
+        notifyListener(changedFiles);
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      logger.debug("Stopped watching the class files.");
+    }
+  }
+
+  /**
+   * Adds the files affected by the events of the passed key to the passed map of file to classpath root.
+   */
+  private void collect(WatchKey key, Map<Path, Path> changedFiles) {
+    Path root = rootsByKey.get(key);
+    Path directory = (Path) key.watchable();
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        logger.warn("Class file changes were lost, changes made so far may not be reflected by the validation rules.");
+      } else if (root != null) {
+        Path file = directory.resolve((Path) event.context());
+        if (Files.isDirectory(file)) {
+          try {
+            changedFiles.putAll(register(root, file, new HashSet<>()));
+          } catch (IOException e) {
+            logger.warn("Cannot watch the new directory '{}'.", file, e);
+          }
+        } else {
+          changedFiles.put(file, root);
+        }
+      }
+    }
+    if (!key.reset()) {
+      rootsByKey.remove(key);
+    }
+  }
+
+  private void notifyListener(Map<Path, Path> changedFiles) {
+    Set<String> changedClassNames = new TreeSet<>();
+    Set<String> removedClassNames = new TreeSet<>();
+    changedFiles.forEach((file, root) -> {
+      if (file.getFileName().toString().endsWith(".class")) {
+        String className = classNameOf(root, file);
+        if (Files.isRegularFile(file)) {
+          superclasses.put(className, readSuperclass(file));
+          changedClassNames.add(className);
+        } else {
+          removedClassNames.add(className);
+        }
+      }
+    });
+    if (changedClassNames.isEmpty() && removedClassNames.isEmpty()) {
+      return;
+    }
+    Set<String> subclasses = findSubclasses(changedClassNames, removedClassNames);
+    removedClassNames.forEach(superclasses::remove);
+    changedClassNames.addAll(subclasses);
+    changedClassNames.removeAll(removedClassNames);
+    logger.info("Class files changed, updating the validation rules of {} changed and {} removed classes.",
+      changedClassNames.size(), removedClassNames.size());
+    try {
+      listener.classesChanged(changedClassNames, removedClassNames);
+    } catch (RuntimeException e) {
+      logger.error("Updating the validation rules for the changed classes failed.", e);
+    }
+  }
+
+  private Set<String> findSubclasses(Set<String> changedClassNames, Set<String> removedClassNames) {
+    Set<String> changedOrRemoved = new HashSet<>(changedClassNames);
+    changedOrRemoved.addAll(removedClassNames);
+    Set<String> subclasses = new HashSet<>();
+    for (String className : superclasses.keySet()) {
+      String superclass = superclasses.get(className);
+      // guards against cyclic hierarchies which class files written in the middle of a compilation may describe
+      Set<String> visited = new HashSet<>();
+      while (superclass != null && visited.add(superclass)) {
+        if (changedOrRemoved.contains(superclass)) {
+          subclasses.add(className);
+          break;
+        }
+        superclass = superclasses.get(superclass);
+      }
+    }
+    return subclasses;
+  }
+
+  /**
+   * Registers the passed directory and its sub-directories and reads the superclasses of the class files in it.
+   *
+   * @return class files found, mapped to the passed root
+   */
+  private Map<Path, Path> register(Path root, Path directory, Set<Path> visited) throws IOException {
+    Map<Path, Path> classFiles = new HashMap<>();
+    if (!visited.add(directory.toRealPath())) {
+      return classFiles;
+    }
+    rootsByKey.put(directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), root);
+    List<Path> children;
+    try (Stream<Path> stream = Files.list(directory)) {
+      children = stream.sorted().collect(Collectors.toList());
+    }
+    for (Path child : children) {
+      if (Files.isDirectory(child)) {
+        classFiles.putAll(register(root, child, visited));
+      } else if (child.getFileName().toString().endsWith(".class")) {
+        superclasses.put(classNameOf(root, child), readSuperclass(child));
+        classFiles.put(child, root);
+      }
+    }
+    return classFiles;
+  }
+
+  private String classNameOf(Path root, Path classFile) {
+    String relativePath = root.relativize(classFile).toString();
+    return StringUtils.removeEnd(relativePath, ".class").replace(classFile.getFileSystem().getSeparator(), ".");
+  }
+
+  private String readSuperclass(Path classFile) {
+    try (InputStream inputStream = Files.newInputStream(classFile)) {
+      return new ClassFile(new DataInputStream(new BufferedInputStream(inputStream))).getSuperclass();
+    } catch (IOException | RuntimeException e) {
+      // the compiler may still be writing the file, it is read again upon the next event
+      logger.debug("Cannot read the class file '{}'.", classFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * Is notified about changed classes.
+   */
+  interface Listener {
+    /**
+     * Invoked on the watcher thread after class files changed.
+     *
+     * @param changedClassNames fully qualified names of the added or changed classes and of their subclasses
+     * @param removedClassNames fully qualified names of the classes whose class file was deleted
+     */
+    void classesChanged(Set<String> changedClassNames, Set<String> removedClassNames);
+  }
+}
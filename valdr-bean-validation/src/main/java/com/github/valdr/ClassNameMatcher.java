@@ -0,0 +1,141 @@
+package com.github.valdr;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Matches fully qualified (binary) class names against a list of class names and wildcard patterns.
+ * <p>Names without wildcard are looked up in a hash set. Patterns are split into segments at the dots, in which
+ * {@code *} matches any characters within a single segment (e.g. {@code com.acme.*} or {@code com.acme.*Dto}) and a
+ * segment consisting of {@code **} matches any number of segments, including none (e.g. {@code com.acme.**.dto.*}).
+ * All patterns are merged into a single trie of segments which is traversed once per class name, so that the cost of
+ * a match does not grow with the number of patterns.
+ */
+final class ClassNameMatcher {
+  private static final String ANY_SEGMENTS = "**";
+
+  private final Set<String> classNames = new HashSet<>();
+  private final Node root = new Node();
+  private boolean hasPatterns;
+
+  /**
+   * Constructor.
+   *
+   * @param classNamesAndPatterns class names and wildcard patterns, surrounding whitespace is ignored, as are empty
+   *                              entries
+   */
+  ClassNameMatcher(Iterable<String> classNamesAndPatterns) {
+    for (String entry : classNamesAndPatterns) {
+      String trimmed = StringUtils.trimToEmpty(entry);
+      if (trimmed.contains(Wildcard.WILDCARD)) {
+        addPattern(trimmed);
+      } else if (!trimmed.isEmpty()) {
+        classNames.add(trimmed);
+      }
+    }
+  }
+
+  /**
+   * @param className fully qualified (binary) class name, e.g. {@code com.acme.Outer$Inner}
+   * @return whether the class name is one of the class names or matches one of the patterns
+   */
+  boolean matches(String className) {
+    if (classNames.contains(className)) {
+      return true;
+    }
+    if (!hasPatterns) {
+      return false;
+    }
+    List<Node> current = new ArrayList<>();
+    addWithAnySegments(root, current);
+    int start = 0;
+    while (start <= className.length() && !current.isEmpty()) {
+      int end = className.indexOf('.', start);
+      if (end < 0) {
+        end = className.length();
+      }
+      String segment = className.substring(start, end);
+      List<Node> next = new ArrayList<>();
+      for (Node node : current) {
+        node.advance(segment, next);
+      }
+      current = next;
+      start = end + 1;
+    }
+    for (Node node : current) {
+      if (node.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return whether neither class names nor patterns were passed
+   */
+  boolean isEmpty() {
+    return classNames.isEmpty() && !hasPatterns;
+  }
+
+  private void addPattern(String pattern) {
+    Node node = root;
+    for (String segment : StringUtils.splitPreserveAllTokens(pattern, '.')) {
+      if (ANY_SEGMENTS.equals(segment)) {
+        if (node.anySegments == null) {
+          node.anySegments = new Node();
+          node.anySegments.loops = true;
+        }
+        node = node.anySegments;
+      } else if (segment.contains(Wildcard.WILDCARD)) {
+        node = node.wildcardChildren.computeIfAbsent(segment, key -> new Node());
+        node.wildcard = new Wildcard(segment);
+      } else {
+        node = node.children.computeIfAbsent(segment, key -> new Node());
+      }
+    }
+    node.terminal = true;
+    hasPatterns = true;
+  }
+
+  /**
+   * Adds the passed node and the {@code **} nodes reachable from it without consuming a segment.
+   */
+  private static void addWithAnySegments(Node node, List<Node> nodes) {
+    if (!nodes.contains(node)) {
+      nodes.add(node);
+      if (node.anySegments != null) {
+        addWithAnySegments(node.anySegments, nodes);
+      }
+    }
+  }
+
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private final Map<String, Node> wildcardChildren = new HashMap<>();
+    private Node anySegments;
+    private Wildcard wildcard;
+    private boolean loops;
+    private boolean terminal;
+
+    private void advance(String segment, List<Node> next) {
+      if (loops) {
+        addWithAnySegments(this, next);
+      }
+      Node child = children.get(segment);
+      if (child != null) {
+        addWithAnySegments(child, next);
+      }
+      for (Node wildcardChild : wildcardChildren.values()) {
+        if (wildcardChild.wildcard.matches(segment)) {
+          addWithAnySegments(wildcardChild, next);
+        }
+      }
+    }
+  }
+}
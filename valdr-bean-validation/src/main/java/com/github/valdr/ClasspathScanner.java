@@ -1,31 +1,89 @@
 package com.github.valdr;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.reflections.Reflections;
+import org.reflections.scanners.Scanner;
 import org.reflections.scanners.Scanners;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
- * Provides means to scan the classpath for model classes that need to be parsed for constraint annotations.
+ * <p>Provides means to scan the classpath for model classes that need to be parsed for constraint annotations.
+ * <p>Classpath roots (directories or JARs) which contain the index {@link #INDEX_RESOURCE} written by the {@link
+ * com.github.valdr.processor.ConstraintIndexProcessor} are not scanned, instead only the classes listed in the index
+ * are loaded.
+ * <p>The other roots are scanned separately and, depending on {@link Options#getScanParallelism()}, concurrently.
+ * The option alone determines the concurrency of the scan, Reflections' own parallel scanning is switched off.
  */
 public class ClasspathScanner {
+  /**
+   * Path of the candidate class index relative to a classpath root.
+   */
+  public static final String INDEX_RESOURCE = "META-INF/valdr/constraint-classes";
+  private static final String CLASS_FILE_SUFFIX = ".class";
+
+  private final Logger logger = LoggerFactory.getLogger(ClasspathScanner.class);
   private final Options options;
+  private final Set<String> relevantAnnotationNames;
+  private final PackageTrie modelPackages;
+  private final Predicate<String> packagePredicates;
 
   /**
-   * Constructor.
+   * Constructor. The scanner finds all classes in the configured model packages.
    *
    * @param options the only relevant input for the parser is this configuration
    */
   public ClasspathScanner(Options options) {
     this.options = options;
+    this.relevantAnnotationNames = null;
+    this.modelPackages = new PackageTrie(options.getModelPackages());
+    this.packagePredicates = buildPackagePredicates();
+  }
+
+  /**
+   * Constructor. The scanner finds only the classes in the configured model packages which declare or inherit fields
+   * annotated with one of the passed annotations. The class files are inspected without loading the classes, only
+   * the classes found are loaded.
+   *
+   * @param options                   the only relevant input for the parser is this configuration
+   * @param relevantAnnotationClasses only classes with fields carrying these annotations are found
+   */
+  public ClasspathScanner(Options options, Iterable<? extends Class<? extends Annotation>> relevantAnnotationClasses) {
+    this.options = options;
+    this.relevantAnnotationNames = new HashSet<>();
+    relevantAnnotationClasses.forEach(annotationClass -> relevantAnnotationNames.add(annotationClass.getName()));
+    this.modelPackages = new PackageTrie(options.getModelPackages());
+    this.packagePredicates = buildPackagePredicates();
   }
 
   /**
@@ -35,34 +93,219 @@ public class ClasspathScanner {
    * @see Options
    */
   public Set<Class<?>> findClassesToParse() {
-    Reflections reflections = new Reflections(new ConfigurationBuilder()
-            .setUrls(buildClassLoaderUrls())
-            .setScanners(Scanners.SubTypes.filterResultsBy(s -> true))
-            .filterInputsBy(buildPackagePredicates()));
+    return findClassesToParse(getRoots());
+  }
 
-    return reflections.getSubTypesOf(Object.class);
+  /**
+   * @return classpath roots (directories or JARs) which contain the configured model packages
+   */
+  public Collection<URL> getRoots() {
+    return buildClassLoaderUrls();
   }
 
-  private Collection<URL> buildClassLoaderUrls() {
-    Collection<URL> urls = Sets.newHashSet();
-    for (String packageName : options.getModelPackages()) {
-      if (StringUtils.isNotEmpty(packageName)) {
-        urls.addAll(ClasspathHelper.forPackage(packageName));
+  /**
+   * Same as {@link #findClassesToParse()} but only considers the passed classpath roots.
+   *
+   * @param roots classpath roots as returned by {@link #getRoots()}
+   * @return classes to parse
+   */
+  public Set<Class<?>> findClassesToParse(Collection<URL> roots) {
+    Set<Class<?>> classes = Sets.newHashSet();
+    Collection<URL> urlsToScan = new ArrayList<>();
+    for (URL url : roots) {
+      Optional<List<String>> index = readIndex(url);
+      if (index.isPresent()) {
+        logger.debug("Using the candidate class index of '{}'.", url);
+        classes.addAll(loadIndexedClasses(index.get(), packagePredicates));
+      } else {
+        urlsToScan.add(url);
+      }
+    }
+    if (!urlsToScan.isEmpty()) {
+      classes.addAll(scan(urlsToScan, packagePredicates));
+    }
+    return classes;
+  }
+
+  /**
+   * Loads a single class if it is in the configured model packages and not excluded. Unlike {@link
+   * #findClassesToParse()} the class is loaded irrespective of its annotations.
+   *
+   * @param className fully qualified (binary) class name
+   * @return the class, empty if it is not to be parsed or can not be loaded
+   */
+  public Optional<Class<?>> findClassToParse(String className) {
+    // the predicates match resource names, e.g. com.example.Person.class
+    if (!packagePredicates.test(className + CLASS_FILE_SUFFIX)) {
+      return Optional.empty();
+    }
+    return loadClass(className);
+  }
+
+  private Collection<Class<?>> scan(Collection<URL> urls, Predicate<String> packagePredicates) {
+    if (relevantAnnotationNames == null) {
+      List<Reflections> perRoot = scanRoots(urls, packagePredicates, Scanners.SubTypes.filterResultsBy(s -> true));
+      // type hierarchies may span roots, hence the results are merged before querying them
+      Reflections reflections = perRoot.get(0);
+      for (Reflections other : perRoot.subList(1, perRoot.size())) {
+        reflections.merge(other);
+      }
+      return reflections.getSubTypesOf(Object.class);
+    }
+
+    ConstraintCandidateScanner candidateScanner = new ConstraintCandidateScanner(relevantAnnotationNames);
+    scanRoots(urls, packagePredicates, candidateScanner);
+    Collection<Class<?>> classes = new ArrayList<>();
+    for (String className : candidateScanner.getCandidates()) {
+      loadClass(className).ifPresent(classes::add);
+    }
+    return classes;
+  }
+
+  /**
+   * Scans each classpath root separately, up to {@link Options#getScanParallelism()} roots concurrently.
+   *
+   * @return one Reflections instance per root, in the order of the passed roots
+   */
+  private List<Reflections> scanRoots(Collection<URL> urls, Predicate<String> packagePredicates, Scanner scanner) {
+    int threads = Math.min(urls.size(), options.getScanParallelism() == null ? 1 : options.getScanParallelism());
+    if (threads <= 1) {
+      return urls.stream().map(url -> scanRoot(url, packagePredicates, scanner)).collect(Collectors.toList());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+      .setNameFormat("valdr-classpath-scan-%d").setDaemon(true).build());
+    try {
+      List<Future<Reflections>> futures = new ArrayList<>();
+      for (URL url : urls) {
+        futures.add(executor.submit(() -> scanRoot(url, packagePredicates, scanner)));
       }
+      List<Reflections> perRoot = new ArrayList<>();
+      for (Future<Reflections> future : futures) {
+        perRoot.add(future.get());
+      }
+      return perRoot;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while scanning the classpath.", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Reflections scanRoot(URL url, Predicate<String> packagePredicates, Scanner scanner) {
+    // the roots are distributed over the threads of scanRoots, Reflections' own parallel scan would stack another
+    // pool (the common fork join pool) on top of it
+    return new Reflections(new ConfigurationBuilder()
+            .setUrls(url)
+            .setScanners(scanner)
+            .filterInputsBy(packagePredicates)
+            .setParallel(false));
+  }
+
+  private Optional<List<String>> readIndex(URL url) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(openUncached(indexUrlOf(url)),
+      StandardCharsets.UTF_8))) {
+      return Optional.of(reader.lines().map(String::trim).filter(StringUtils::isNotEmpty).collect(Collectors.toList()));
+    } catch (FileNotFoundException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      logger.debug("Cannot read the candidate class index of '{}', scanning it instead.", url, e);
+      return Optional.empty();
+    }
+  }
+
+  private InputStream openUncached(URL url) throws IOException {
+    URLConnection connection = url.openConnection();
+    // a cached connection to a jar: URL keeps the JAR open, which prevents it from being replaced on redeployment
+    connection.setUseCaches(false);
+    return connection.getInputStream();
+  }
+
+  private URL indexUrlOf(URL url) throws MalformedURLException {
+    String root = url.toExternalForm();
+    if (root.endsWith("/")) {
+      return new URL(root + INDEX_RESOURCE);
+    }
+    return new URL("jar:" + root + "!/" + INDEX_RESOURCE);
+  }
+
+  private Collection<Class<?>> loadIndexedClasses(List<String> classNames, Predicate<String> packagePredicates) {
+    Collection<Class<?>> classes = new ArrayList<>();
+    for (String className : classNames) {
+      // the predicates match resource names, e.g. com.example.Person.class
+      if (packagePredicates.test(className + CLASS_FILE_SUFFIX)) {
+        loadClass(className).ifPresent(classes::add);
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Same as {@link #findClassToParse(String)} but loads the class through the passed class loader.
+   *
+   * @param className   fully qualified (binary) class name
+   * @param classLoader class loader to load the class with, e.g. one created by {@link #newReloadingClassLoader()}
+   * @return the class, empty if it is not to be parsed or can not be loaded
+   */
+  Optional<Class<?>> findClassToParse(String className, ClassLoader classLoader) {
+    if (!packagePredicates.test(className + CLASS_FILE_SUFFIX)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Class.forName(className, false, classLoader));
+    } catch (ClassNotFoundException | LinkageError e) {
+      logger.warn("The class '{}' can not be found. It will be ignored.", className);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Creates a class loader which loads the current state of the classes in the model packages from the classpath
+   * roots, even if the application has loaded them before. The caller closes it once done.
+   *
+   * @return new class loader
+   */
+  ReloadingClassLoader newReloadingClassLoader() {
+    ClassLoader parent = ClasspathHelper.classLoaders()[0];
+    return new ReloadingClassLoader(getRoots(), parent, modelPackages, relevantAnnotationNames == null ?
+      Collections.emptySet() : relevantAnnotationNames);
+  }
+
+  private Optional<Class<?>> loadClass(String className) {
+    for (ClassLoader classLoader : ClasspathHelper.classLoaders()) {
+      try {
+        return Optional.of(Class.forName(className, false, classLoader));
+      } catch (ClassNotFoundException | LinkageError e) {
+        // try the next class loader
+      }
+    }
+    logger.warn("The class '{}' can not be found. It will be ignored.", className);
+    return Optional.empty();
+  }
+
+  /**
+   * Resolves the classpath roots of the model packages. Sub-packages of other model packages are not resolved as
+   * their roots are found for the parent package already.
+   */
+  private Collection<URL> buildClassLoaderUrls() {
+    Collection<URL> urls = new LinkedHashSet<>();
+    for (String packageName : modelPackages.getPackageNames()) {
+      urls.addAll(ClasspathHelper.forPackage(packageName));
     }
     return urls;
   }
 
   private Predicate<String> buildPackagePredicates() {
-    FilterBuilder filterBuilder = new FilterBuilder();
-    // Include package names
-    for (String packageName : options.getModelPackages()) {
-      filterBuilder.includePackage(packageName);
-    }
-    // Exclude class names
-    for (String excludedClassName : options.getExcludedClasses()) {
-      filterBuilder.excludePattern("^" + StringUtils.replace(excludedClassName, ".", "\\.") + "\\.class$");
+    Predicate<String> inModelPackages = modelPackages::contains;
+    ClassNameMatcher excludedClasses = new ClassNameMatcher(options.getExcludedClasses());
+    if (excludedClasses.isEmpty()) {
+      return inModelPackages;
     }
-    return filterBuilder;
+    // only class files are excluded, their resource names are e.g. com.example.Person.class
+    return inModelPackages.and(name -> !name.endsWith(CLASS_FILE_SUFFIX) || !excludedClasses.matches(name
+      .substring(0, name.length() - CLASS_FILE_SUFFIX.length())));
   }
 }
@@ -4,7 +4,6 @@ import com.github.valdr.thirdparty.spring.AnnotationUtils;
 
 import java.lang.annotation.Annotation;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -13,7 +12,7 @@ import java.util.Set;
  */
 public class ConstraintAttributes implements MinimalObjectMap {
 
-  private final Map<String, Object> map = new HashMap<>();
+  private final Map<String, Object> map;
 
   /**
    * Constructor.
@@ -21,9 +20,29 @@ public class ConstraintAttributes implements MinimalObjectMap {
    * @param annotation annotation which is queried for attributes
    */
   public ConstraintAttributes(Annotation annotation) {
-    Map<String, Object> annotationAttributes = AnnotationUtils.getAnnotationAttributes(annotation);
-    removeUnusedAttributes(annotationAttributes);
-    map.putAll(annotationAttributes);
+    // the parser reads annotations through the accessors of its ConstraintHandlers, this is for other callers
+    this(relevantAttributesOf(annotation));
+  }
+
+  /**
+   * Constructor for attribute values which have been read by the accessor before.
+   *
+   * @param accessor accessor which read the values
+   * @param values   values of the relevant attributes, see {@link AnnotationAccessor#readValues(Annotation)}
+   */
+  ConstraintAttributes(AnnotationAccessor accessor, Object[] values) {
+    map = newMap(accessor.size());
+    accessor.copyAttributes(values, map);
+  }
+
+  /**
+   * Constructor for attributes which have been extracted from an annotation before.
+   *
+   * @param attributes attribute name to value, in iteration order
+   */
+  ConstraintAttributes(Map<String, Object> attributes) {
+    map = newMap(attributes.size());
+    map.putAll(attributes);
   }
 
   @Override
@@ -41,13 +60,17 @@ public class ConstraintAttributes implements MinimalObjectMap {
     return map.put(key, value);
   }
 
-  private void removeUnusedAttributes(Map<String, Object> annotationAttributes) {
-    Iterator<String> it = annotationAttributes.keySet().iterator();
-    while (it.hasNext()) {
-      String key = it.next();
-      if ("groups".equals(key) || "payload".equals(key)) {
-        it.remove();
-      }
-    }
+  private static Map<String, Object> relevantAttributesOf(Annotation annotation) {
+    Map<String, Object> annotationAttributes = AnnotationUtils.getAnnotationAttributes(annotation);
+    annotationAttributes.keySet().removeIf(key -> "groups".equals(key) || "payload".equals(key));
+    return annotationAttributes;
+  }
+
+  /**
+   * Creates the map sized as {@link HashMap#putAll(Map)} sizes an empty map. The attributes used to be copied that
+   * way, the capacity determines the order of the attributes in the JSON document.
+   */
+  private static Map<String, Object> newMap(int size) {
+    return size == 0 ? new HashMap<>() : new HashMap<>((int) (size / 0.75f + 1.0f));
   }
 }
@@ -0,0 +1,109 @@
+package com.github.valdr;
+
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.annotation.Annotation;
+import org.reflections.scanners.Scanner;
+import org.reflections.util.ClasspathHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Reflections {@link Scanner} which inspects the bytecode of the scanned classes without loading them. It records
+ * the superclass of each class and whether the class declares a field annotated with one of the relevant annotations.
+ * <p>After the scan {@link #getCandidates()} returns the classes which declare or inherit such a field. Superclasses
+ * outside of the scanned classpath roots and packages are inspected by reading their class files from the class
+ * loaders.
+ */
+class ConstraintCandidateScanner implements Scanner {
+  private final Logger logger = LoggerFactory.getLogger(ConstraintCandidateScanner.class);
+
+  private final Set<String> relevantAnnotationNames;
+  private final Map<String, String> superclasses = new ConcurrentHashMap<>();
+  private final Set<String> classesDeclaringConstraints = ConcurrentHashMap.newKeySet();
+  private final Map<String, Boolean> classesWithConstraints = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param relevantAnnotationNames fully qualified names of the relevant annotations
+   */
+  ConstraintCandidateScanner(Set<String> relevantAnnotationNames) {
+    this.relevantAnnotationNames = relevantAnnotationNames;
+  }
+
+  @Override
+  public List<Map.Entry<String, String>> scan(ClassFile classFile) {
+    superclasses.put(classFile.getName(), classFile.getSuperclass());
+    if (declaresConstraints(classFile)) {
+      classesDeclaringConstraints.add(classFile.getName());
+    }
+    // the results are kept by this scanner rather than in the Reflections store
+    return Collections.emptyList();
+  }
+
+  /**
+   * @return names of the scanned classes which declare or inherit a field with a relevant annotation
+   */
+  Set<String> getCandidates() {
+    return superclasses.keySet().stream().filter(this::hasConstraints).collect(Collectors.toSet());
+  }
+
+  private boolean declaresConstraints(ClassFile classFile) {
+    for (FieldInfo field : classFile.getFields()) {
+      AnnotationsAttribute annotations = (AnnotationsAttribute) field.getAttribute(AnnotationsAttribute.visibleTag);
+      if (annotations != null) {
+        for (Annotation annotation : annotations.getAnnotations()) {
+          if (relevantAnnotationNames.contains(annotation.getTypeName())) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean hasConstraints(String className) {
+    if (className == null || className.startsWith("java.")) {
+      return false;
+    }
+    Boolean result = classesWithConstraints.get(className);
+    if (result == null) {
+      if (superclasses.containsKey(className)) {
+        result = classesDeclaringConstraints.contains(className) || hasConstraints(superclasses.get(className));
+      } else {
+        ClassFile classFile = readClassFile(className);
+        result = classFile != null && (declaresConstraints(classFile) || hasConstraints(classFile.getSuperclass()));
+      }
+      classesWithConstraints.put(className, result);
+    }
+    return result;
+  }
+
+  private ClassFile readClassFile(String className) {
+    String resourceName = className.replace('.', '/') + ".class";
+    for (ClassLoader classLoader : ClasspathHelper.classLoaders()) {
+      try (InputStream inputStream = classLoader.getResourceAsStream(resourceName)) {
+        if (inputStream != null) {
+          return new ClassFile(new DataInputStream(new BufferedInputStream(inputStream)));
+        }
+      } catch (IOException e) {
+        logger.debug("Cannot read the class file of '{}'.", className, e);
+      }
+    }
+    logger.debug("The class file of '{}' can not be found, its fields are not considered.", className);
+    return null;
+  }
+}
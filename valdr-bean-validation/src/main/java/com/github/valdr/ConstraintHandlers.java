@@ -0,0 +1,114 @@
+package com.github.valdr;
+
+import java.lang.annotation.Annotation;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>Registry of the relevant annotation classes. It maps each of them to the name of the constraint in the JSON
+ * document, to the {@link AnnotationAccessor} reading the attributes and to the factory of the decorator which is
+ * wrapped around the constraint attributes.
+ * <p>The registry is built once and not modified afterwards, it may therefore be shared by concurrently parsing
+ * threads. Whether an annotation is relevant, its name and its decorator are found with a single identity lookup.
+ * <p>Equal constraints are interned, see {@link ConstraintInterner}. The interner lives as long as the registry, passes
+ * over classes which are loaded by a throwaway class loader use a registry {@link #withOwnInterner() with an interner
+ * of their own} so that the interned attribute values (e.g. enum constants) do not keep that class loader reachable.
+ */
+final class ConstraintHandlers {
+  private final Map<Class<? extends Annotation>, ConstraintHandler> handlers = new IdentityHashMap<>();
+  private final ConstraintInterner interner;
+
+  /**
+   * Constructor.
+   *
+   * @param relevantAnnotationClasses built-in and custom annotation classes to consider
+   */
+  ConstraintHandlers(Iterable<Class<? extends Annotation>> relevantAnnotationClasses) {
+    this.interner = new ConstraintInterner();
+    for (Class<? extends Annotation> annotationClass : relevantAnnotationClasses) {
+      if (!handlers.containsKey(annotationClass)) {
+        handlers.put(annotationClass, createHandler(annotationClass));
+      }
+    }
+  }
+
+  private ConstraintHandlers(ConstraintHandlers original) {
+    this.interner = new ConstraintInterner();
+    original.handlers.forEach((annotationClass, handler) -> handlers.put(annotationClass,
+      new ConstraintHandler(handler, interner)));
+  }
+
+  /**
+   * @return registry with the same handlers whose interner is discarded together with the returned registry
+   */
+  ConstraintHandlers withOwnInterner() {
+    return new ConstraintHandlers(this);
+  }
+
+  /**
+   * @param annotationClass annotation class
+   * @return handler for the annotation class, {@code null} if the annotation class is not relevant
+   */
+  ConstraintHandler get(Class<? extends Annotation> annotationClass) {
+    return handlers.get(annotationClass);
+  }
+
+  private ConstraintHandler createHandler(Class<? extends Annotation> annotationClass) {
+    BuiltInConstraint builtInConstraint = BuiltInConstraint.valueOfAnnotationClassOrNull(annotationClass);
+    if (builtInConstraint == null) {
+      return new ConstraintHandler(annotationClass, annotationClass.getName(), attributes -> attributes,
+        interner);
+    }
+    return new ConstraintHandler(annotationClass, builtInConstraint.toString(), builtInConstraint::createDecoratorFor,
+      interner);
+  }
+
+  /**
+   * Turns annotations of one class into constraint attributes.
+   */
+  static final class ConstraintHandler {
+    private final Class<? extends Annotation> annotationClass;
+    private final AnnotationAccessor accessor;
+    private final String name;
+    private final Function<ConstraintAttributes, MinimalObjectMap> decoratorFactory;
+    private final ConstraintInterner interner;
+
+    private ConstraintHandler(Class<? extends Annotation> annotationClass, String name,
+      Function<ConstraintAttributes, MinimalObjectMap> decoratorFactory, ConstraintInterner interner) {
+      this.annotationClass = annotationClass;
+      this.accessor = new AnnotationAccessor(annotationClass);
+      this.name = name;
+      this.decoratorFactory = decoratorFactory;
+      this.interner = interner;
+    }
+
+    private ConstraintHandler(ConstraintHandler original, ConstraintInterner interner) {
+      this.annotationClass = original.annotationClass;
+      this.accessor = original.accessor;
+      this.name = original.name;
+      this.decoratorFactory = original.decoratorFactory;
+      this.interner = interner;
+    }
+
+    /**
+     * @return name of the constraint in the JSON document
+     */
+    String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the (decorated) attributes of the annotation. They are shared by all annotations of the same class with
+     * equal attribute values, the decorator is applied only for the first of them.
+     *
+     * @param annotation annotation of the class this handler is registered for
+     * @return immutable (decorated) attributes of the annotation
+     */
+    SharedConstraintAttributes getSharedAttributes(Annotation annotation) {
+      Object[] values = accessor.readValues(annotation);
+      return interner.intern(annotationClass, values,
+        () -> decoratorFactory.apply(new ConstraintAttributes(accessor, values)));
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.github.valdr;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * <p>Shares one {@link SharedConstraintAttributes} between all constraints of the same type with equal attribute
+ * values. Large models repeat the same constraints many times (e.g. {@code @NotNull} with the default message or
+ * {@code @Size(max = 255)}), sharing them keeps a single copy of the attributes and of their JSON encoding in memory.
+ * <p>The interner is thread-safe. It only grows and is therefore meant to live as long as the parser or cache which
+ * builds the model.
+ */
+final class ConstraintInterner {
+  private final Map<Key, SharedConstraintAttributes> shared = new ConcurrentHashMap<>();
+
+  /**
+   * @param type       type of the constraint, e.g. the annotation class
+   * @param values     attribute values which identify the constraint within its type, arrays are compared by content
+   * @param attributes creates the (decorated) attributes if no equal constraint has been interned before
+   * @return attributes shared by all equal constraints
+   */
+  SharedConstraintAttributes intern(Object type, Object[] values, Supplier<? extends MinimalObjectMap> attributes) {
+    return shared.computeIfAbsent(new Key(type, values), key -> new SharedConstraintAttributes(attributes.get()));
+  }
+
+  /**
+   * @return number of distinct constraints interned so far
+   */
+  int size() {
+    return shared.size();
+  }
+
+  /**
+   * Constraint type plus attribute values.
+   */
+  private static final class Key {
+    private final Object type;
+    private final Object[] values;
+    private final int hash;
+
+    private Key(Object type, Object[] values) {
+      this.type = type;
+      this.values = values;
+      this.hash = 31 * type.hashCode() + Arrays.deepHashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return hash == key.hash && type.equals(key.type) && Arrays.deepEquals(values, key.values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
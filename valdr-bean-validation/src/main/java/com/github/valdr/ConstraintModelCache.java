@@ -0,0 +1,355 @@
+package com.github.valdr;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.valdr.serializer.ConstraintsJsonWriter;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>Persistent cache of the constraints extracted from the classes of a classpath root (directory or JAR), see
+ * {@link Options#getCacheDirectory()}. There is one cache file per root.
+ * <p>An entry is only reused if the fingerprint of its root is unchanged. The fingerprint consists of the size and the
+ * modification time of the root (of all files within it for directories) and, if configured, a hash of the content. An
+ * entry also records the fingerprints of the roots its classes inherit fields from; a change to any of them
+ * invalidates the entry as well. Changes to the configuration, to the roots of the relevant annotations, to valdr
+ * itself or to the Java version invalidate all entries.
+ */
+class ConstraintModelCache {
+  /**
+   * Version of the cache file format, to be increased whenever the format or the extraction logic changes.
+   */
+  private static final int FORMAT = 1;
+
+  private final Logger logger = LoggerFactory.getLogger(ConstraintModelCache.class);
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ConstraintsJsonWriter writer = new ConstraintsJsonWriter(false);
+  private final ConstraintInterner interner = new ConstraintInterner();
+  private final Path directory;
+  private final boolean contentHash;
+  private final String configurationKey;
+
+  /**
+   * Constructor.
+   *
+   * @param options                   configuration, its {@link Options#getCacheDirectory()} must not be empty
+   * @param relevantAnnotationClasses annotation classes considered by the parser
+   */
+  ConstraintModelCache(Options options, Iterable<Class<? extends Annotation>> relevantAnnotationClasses) {
+    this.directory = Paths.get(options.getCacheDirectory());
+    this.contentHash = Boolean.TRUE.equals(options.getCacheContentHash());
+    this.configurationKey = buildConfigurationKey(options, relevantAnnotationClasses);
+  }
+
+  /**
+   * Computes the current fingerprint of a classpath root.
+   *
+   * @param root classpath root
+   * @return fingerprint, empty if the root is not a local file or directory and hence cannot be cached
+   */
+  Optional<String> fingerprint(URL root) {
+    Optional<Path> path = toPath(root);
+    if (!path.isPresent() || !Files.exists(path.get())) {
+      return Optional.empty();
+    }
+    try {
+      Hasher hasher = Hashing.sha256().newHasher();
+      if (Files.isDirectory(path.get())) {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(path.get())) {
+          files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+          hasher.putString(path.get().relativize(file).toString(), StandardCharsets.UTF_8);
+          putFile(hasher, file);
+        }
+      } else {
+        putFile(hasher, path.get());
+      }
+      return Optional.of(hasher.hash().toString());
+    } catch (IOException e) {
+      logger.debug("Cannot compute the fingerprint of '{}', it is not cached.", root, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Loads the cached constraints of a classpath root.
+   *
+   * @param root        classpath root
+   * @param fingerprint current fingerprint of the root
+   * @return cached constraints if there is a valid cache entry
+   */
+  Optional<CachedRoot> load(URL root, String fingerprint) {
+    Path file = fileFor(root);
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    try {
+      JsonNode entry = objectMapper.readTree(file.toFile());
+      if (entry.path("format").asInt() != FORMAT || !configurationKey.equals(entry.path("configuration").asText())
+        || !fingerprint.equals(entry.path("fingerprint").asText()) || !areDependenciesUnchanged(entry.path(
+        "dependencies"))) {
+        return Optional.empty();
+      }
+      CachedRoot cachedRoot = new CachedRoot();
+      Iterator<Map.Entry<String, JsonNode>> classes = entry.path("constraints").fields();
+      while (classes.hasNext()) {
+        Map.Entry<String, JsonNode> clazz = classes.next();
+        cachedRoot.constraints.put(clazz.getKey(), toClassConstraints(clazz.getValue()));
+        cachedRoot.simpleNames.put(clazz.getKey(), entry.path("simpleNames").path(clazz.getKey()).asText());
+      }
+      return Optional.of(cachedRoot);
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Cannot read the cache file '{}', the root '{}' is parsed.", file, root, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the constraints extracted from the classes of a classpath root.
+   *
+   * @param root        classpath root
+   * @param fingerprint fingerprint of the root computed before its classes were scanned
+   * @param constraints constraints of all classes of the root which have constraints
+   */
+  void store(URL root, String fingerprint, Map<Class<?>, ClassConstraints> constraints) {
+    ObjectNode entry = objectMapper.createObjectNode();
+    entry.put("format", FORMAT);
+    entry.put("configuration", configurationKey);
+    entry.put("root", root.toExternalForm());
+    entry.put("fingerprint", fingerprint);
+    ObjectNode dependencies = entry.putObject("dependencies");
+    ObjectNode simpleNames = entry.putObject("simpleNames");
+    Map<String, ClassConstraints> model = new TreeMap<>();
+    for (Map.Entry<Class<?>, ClassConstraints> clazz : constraints.entrySet()) {
+      model.put(clazz.getKey().getName(), clazz.getValue());
+      simpleNames.put(clazz.getKey().getName(), clazz.getKey().getSimpleName());
+      for (URL dependency : superclassRootsOf(clazz.getKey(), root)) {
+        if (!dependencies.has(dependency.toExternalForm())) {
+          Optional<String> dependencyFingerprint = fingerprint(dependency);
+          if (!dependencyFingerprint.isPresent()) {
+            logger.debug("The root '{}' depends on '{}' which cannot be cached, hence it is not cached either.",
+              root, dependency);
+            return;
+          }
+          dependencies.put(dependency.toExternalForm(), dependencyFingerprint.get());
+        }
+      }
+    }
+    Path file = fileFor(root);
+    try {
+      entry.set("constraints", objectMapper.readTree(writer.writeAsBytes(model)));
+      Files.createDirectories(directory);
+      Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      objectMapper.writeValue(temporaryFile.toFile(), entry);
+      try {
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      logger.warn("Cannot write the cache file '{}'.", file, e);
+    }
+  }
+
+  private boolean areDependenciesUnchanged(JsonNode dependencies) throws IOException {
+    Iterator<Map.Entry<String, JsonNode>> entries = dependencies.fields();
+    while (entries.hasNext()) {
+      Map.Entry<String, JsonNode> dependency = entries.next();
+      Optional<String> fingerprint = fingerprint(new URL(dependency.getKey()));
+      if (!fingerprint.isPresent() || !fingerprint.get().equals(dependency.getValue().asText())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return roots (other than the passed one) of the superclasses of the passed class
+   */
+  private List<URL> superclassRootsOf(Class<?> clazz, URL root) {
+    List<URL> roots = new ArrayList<>();
+    for (Class<?> superclass = clazz.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+      rootOf(superclass).filter(superclassRoot -> !isSameRoot(superclassRoot, root)).ifPresent(roots::add);
+    }
+    return roots;
+  }
+
+  /**
+   * @return classpath root from which the passed class has been loaded, empty for classes of the Java runtime
+   */
+  static Optional<URL> rootOf(Class<?> clazz) {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    return Optional.ofNullable(codeSource).map(CodeSource::getLocation);
+  }
+
+  static boolean isSameRoot(URL root, URL other) {
+    return Objects.equals(toPath(root), toPath(other));
+  }
+
+  private ClassConstraints toClassConstraints(JsonNode node) {
+    ClassConstraints classConstraints = new ClassConstraints();
+    node.fields().forEachRemaining(field -> {
+      FieldConstraints fieldConstraints = new FieldConstraints();
+      field.getValue().fields().forEachRemaining(constraint -> {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        constraint.getValue().fields().forEachRemaining(attribute -> attributes.put(attribute.getKey(),
+          toAttributeValue(attribute.getValue())));
+        // restored constraints are shared like extracted ones, keyed by constraint name plus names and values
+        fieldConstraints.put(constraint.getKey(), interner.intern(constraint.getKey(), toKey(attributes),
+          () -> new ConstraintAttributes(attributes)));
+      });
+      classConstraints.put(field.getKey(), fieldConstraints);
+    });
+    return classConstraints;
+  }
+
+  private static Object[] toKey(Map<String, Object> attributes) {
+    Object[] key = new Object[attributes.size() * 2];
+    int i = 0;
+    for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+      key[i++] = attribute.getKey();
+      key[i++] = attribute.getValue();
+    }
+    return key;
+  }
+
+  /**
+   * Converts an attribute value back to the type that yields the same JSON as the originally extracted value.
+   */
+  private Object toAttributeValue(JsonNode value) {
+    if (value.isTextual()) {
+      return value.textValue();
+    } else if (value.isInt()) {
+      return value.intValue();
+    } else if (value.isLong()) {
+      return value.longValue();
+    } else if (value.isDouble()) {
+      return value.doubleValue();
+    } else if (value.isBoolean()) {
+      return value.booleanValue();
+    } else if (value.isNull()) {
+      return null;
+    } else if (value.isArray() && isTextualArray(value)) {
+      String[] strings = new String[value.size()];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = value.get(i).textValue();
+      }
+      return strings;
+    }
+    return objectMapper.convertValue(value, Object.class);
+  }
+
+  private boolean isTextualArray(JsonNode array) {
+    for (JsonNode element : array) {
+      if (!element.isTextual()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Path fileFor(URL root) {
+    String name = Hashing.sha256().hashString(root.toExternalForm(), StandardCharsets.UTF_8).toString();
+    return directory.resolve(name + ".json");
+  }
+
+  private void putFile(Hasher hasher, Path file) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    hasher.putLong(attributes.size());
+    hasher.putLong(attributes.lastModifiedTime().toMillis());
+    if (contentHash) {
+      try (InputStream inputStream = Files.newInputStream(file)) {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+          hasher.putBytes(buffer, 0, read);
+        }
+      }
+    }
+  }
+
+  private String buildConfigurationKey(Options options, Iterable<Class<? extends Annotation>>
+    relevantAnnotationClasses) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT);
+    hasher.putString(System.getProperty("java.version"), StandardCharsets.UTF_8);
+    hasher.putBoolean(contentHash);
+    // the extraction logic and the decorators are part of the cached constraints as well
+    Optional<String> valdrFingerprint = rootOf(ConstraintModelCache.class).flatMap(this::fingerprint);
+    hasher.putString(valdrFingerprint.orElse(String.valueOf(ConstraintModelCache.class.getPackage()
+      .getImplementationVersion())), StandardCharsets.UTF_8);
+    for (List<String> values : List.of(options.getModelPackages(), options.getExcludedClasses(),
+      options.getExcludedFields(), options.getCustomAnnotationClasses())) {
+      hasher.putString(String.join(",", values), StandardCharsets.UTF_8).putChar(';');
+    }
+    for (Class<? extends Annotation> annotationClass : relevantAnnotationClasses) {
+      hasher.putString(annotationClass.getName(), StandardCharsets.UTF_8);
+      // attribute defaults (e.g. messages) are part of the cached constraints
+      rootOf(annotationClass).flatMap(this::fingerprint).ifPresent(fingerprint -> hasher.putString(fingerprint,
+        StandardCharsets.UTF_8));
+    }
+    return hasher.hash().toString();
+  }
+
+  private static Optional<Path> toPath(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Paths.get(url.toURI()).toAbsolutePath().normalize());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Constraints of the classes of a classpath root read from the cache.
+   */
+  static final class CachedRoot {
+    private final Map<String, ClassConstraints> constraints = new LinkedHashMap<>();
+    private final Map<String, String> simpleNames = new LinkedHashMap<>();
+
+    /**
+     * @return fully qualified class name to constraints
+     */
+    Map<String, ClassConstraints> getConstraints() {
+      return constraints;
+    }
+
+    /**
+     * @return fully qualified class name to simple class name
+     */
+    Map<String, String> getSimpleNames() {
+      return simpleNames;
+    }
+  }
+}
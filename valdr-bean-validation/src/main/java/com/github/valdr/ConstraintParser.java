@@ -1,19 +1,32 @@
 package com.github.valdr;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.github.valdr.serializer.MinimalMapSerializer;
+import com.github.valdr.serializer.ConstraintsJsonWriter;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
-import lombok.SneakyThrows;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * <p> Parses classes in defined packages for supported <a href="http://beanvalidation.org/">Bean Validation (JSR
@@ -31,6 +44,10 @@ public class ConstraintParser {
   private final ClasspathScanner classpathScanner;
   private final Iterable<Class<? extends Annotation>> allRelevantAnnotationClasses;
   private final Options options;
+  private final ConstraintsJsonWriter writer;
+  private final ConstraintModelCache cache;
+  private final FieldExclusions fieldExclusions;
+  private final ConstraintHandlers constraintHandlers;
 
   /**
    * Constructor.
@@ -39,9 +56,14 @@ public class ConstraintParser {
    */
   public ConstraintParser(Options options) {
     this.options = options;
-    this.classpathScanner = new ClasspathScanner(options);
     allRelevantAnnotationClasses = Iterables.concat(BuiltInConstraint.getAllBeanValidationAnnotations(),
       getConfiguredCustomAnnotations());
+    this.classpathScanner = new ClasspathScanner(options, allRelevantAnnotationClasses);
+    this.writer = new ConstraintsJsonWriter(options.getPrettyPrint());
+    this.fieldExclusions = new FieldExclusions(options.getExcludedFields());
+    this.constraintHandlers = new ConstraintHandlers(allRelevantAnnotationClasses);
+    this.cache = StringUtils.isEmpty(options.getCacheDirectory()) ? null : new ConstraintModelCache(options,
+      allRelevantAnnotationClasses);
   }
 
   /**
@@ -50,32 +72,254 @@ public class ConstraintParser {
    * @return JSON string for <a href="https://github.com/netceteragroup/valdr">valdr</a>
    */
   public String parse() {
-    Map<String, ClassConstraints> classNameToValidationRulesMap = new HashMap<>();
-
-    for (Class clazz : classpathScanner.findClassesToParse()) {
-      if (clazz != null) {
-        ClassConstraints classValidationRules = new AnnotatedClass(clazz, options.getExcludedFields(),
-          allRelevantAnnotationClasses).extractValidationRules();
-        if (classValidationRules.size() > 0) {
-          String name = options.getOutputFullTypeName() ? clazz.getName() : clazz.getSimpleName();
-          classNameToValidationRulesMap.put(name, classValidationRules);
-        }
+    return writer.writeAsString(parseConstraints());
+  }
+
+  /**
+   * Same as {@link #parse()} but the JSON document is directly encoded as UTF-8 rather than built as string first.
+   *
+   * @return UTF-8 encoded JSON document for <a href="https://github.com/netceteragroup/valdr">valdr</a>
+   */
+  public byte[] parseToBytes() {
+    return writer.writeAsBytes(parseConstraints());
+  }
+
+  /**
+   * Same as {@link #parse()} but the JSON document is streamed UTF-8 encoded to the passed output stream. The stream is
+   * flushed but not closed.
+   *
+   * @param outputStream stream to which the JSON document is written
+   * @throws IOException if writing to the stream fails
+   */
+  public void parse(OutputStream outputStream) throws IOException {
+    writer.write(parseConstraints(), outputStream);
+  }
+
+  /**
+   * Same as {@link #parse()} but returns the constraint model rather than the JSON document. The model can be written
+   * with a {@link ConstraintsJsonWriter}.
+   *
+   * @return type name to constraints
+   */
+  public Map<String, ClassConstraints> parseConstraints() {
+    return byTypeName(parseClasses(), ParsedClass::getTypeName, ParsedClass::getConstraints);
+  }
+
+  /**
+   * Same as {@link #parseConstraints()} but keeps the constraints of each class separate.
+   *
+   * @return fully qualified class name to parsed class, ordered by class name
+   */
+  SortedMap<String, ParsedClass> parseClasses() {
+    // constraints by class name; the fixed order makes the result independent of the scan order, of the parallelism
+    // and of whether the constraints have been cached
+    Map<String, ClassConstraints> constraintsByClassName = new TreeMap<>();
+    Map<String, String> simpleNames = new HashMap<>();
+    if (cache == null) {
+      Map<Class<?>, ClassConstraints> extracted = extractValidationRules(classpathScanner.findClassesToParse());
+      extracted.forEach((clazz, classValidationRules) -> {
+        constraintsByClassName.put(clazz.getName(), classValidationRules);
+        simpleNames.put(clazz.getName(), clazz.getSimpleName());
+      });
+    } else {
+      parseConstraintsUsingCache(constraintsByClassName, simpleNames);
+    }
+
+    SortedMap<String, ParsedClass> parsedClasses = new TreeMap<>();
+    constraintsByClassName.forEach((className, classValidationRules) -> parsedClasses.put(className,
+      new ParsedClass(typeNameOf(className, simpleNames.get(className)), classValidationRules)));
+    return parsedClasses;
+  }
+
+  /**
+   * Parses classes again, e.g. because their class files changed after {@link #parseClasses()}. The classes are
+   * loaded through a throwaway {@link ReloadingClassLoader}, hence the current state of their class files is parsed
+   * even if the application loaded them before.
+   *
+   * @param classNames fully qualified (binary) class names
+   * @return class name to parsed class, empty if the class is not in the configured model packages, is excluded, can
+   * not be loaded or has no constraints
+   */
+  Map<String, Optional<ParsedClass>> parseChangedClasses(Collection<String> classNames) {
+    Map<String, Optional<ParsedClass>> parsedClasses = new HashMap<>();
+    // nothing which refers to the reloaded classes may outlive this pass, hence the interner is discarded as well
+    DeclaredConstraints declaredConstraints = new DeclaredConstraints(fieldExclusions,
+      constraintHandlers.withOwnInterner());
+    try (ReloadingClassLoader classLoader = classpathScanner.newReloadingClassLoader()) {
+      for (String className : classNames) {
+        parsedClasses.put(className, classpathScanner.findClassToParse(className, classLoader).flatMap(clazz -> {
+          ClassConstraints classValidationRules = extractValidationRules(clazz, declaredConstraints);
+          return classValidationRules.size() > 0 ? Optional.of(new ParsedClass(typeNameOf(clazz.getName(),
+            clazz.getSimpleName()), classValidationRules)) : Optional.empty();
+        }));
+      }
+    } catch (IOException e) {
+      logger.debug("Cannot close the class loader of the changed classes.", e);
+    }
+    return parsedClasses;
+  }
+
+  /**
+   * Keys the passed per-class values by the type names used in the JSON document. If several classes have the same
+   * type name (simple names) the class whose name sorts last wins. The returned map is filled in class name order so
+   * that its iteration order only depends on the classes passed.
+   *
+   * @param classes   per-class values ordered by class name
+   * @param typeName  returns the type name of a value
+   * @param value     returns what to put into the returned map for a value
+   * @param <T>       type of the per-class values
+   * @param <V>       type of the values of the returned map
+   * @return type name to value
+   */
+  static <T, V> Map<String, V> byTypeName(SortedMap<String, T> classes, Function<T, String> typeName,
+    Function<T, V> value) {
+    Map<String, V> result = new HashMap<>();
+    for (T parsedClass : classes.values()) {
+      result.put(typeName.apply(parsedClass), value.apply(parsedClass));
+    }
+    return result;
+  }
+
+  private String typeNameOf(String className, String simpleName) {
+    return options.getOutputFullTypeName() ? className : simpleName;
+  }
+
+  /**
+   * Takes the constraints of unchanged classpath roots from the cache and parses only the other roots. The results
+   * are merged in classpath order whether they were cached or parsed: if several roots contain a class of the same
+   * name the first one wins, as it does when the class is loaded.
+   */
+  private void parseConstraintsUsingCache(Map<String, ClassConstraints> constraintsByClassName,
+    Map<String, String> simpleNames) {
+    Map<URL, RootConstraints> constraintsByRoot = new LinkedHashMap<>();
+    Map<URL, String> rootsToParse = new HashMap<>();
+    Collection<URL> uncacheableRoots = new ArrayList<>();
+    for (URL root : classpathScanner.getRoots()) {
+      RootConstraints rootConstraints = new RootConstraints();
+      constraintsByRoot.put(root, rootConstraints);
+      Optional<String> fingerprint = cache.fingerprint(root);
+      Optional<ConstraintModelCache.CachedRoot> cachedRoot = fingerprint.flatMap(value -> cache.load(root, value));
+      if (cachedRoot.isPresent()) {
+        logger.debug("Using the cached constraints of '{}'.", root);
+        rootConstraints.constraints.putAll(cachedRoot.get().getConstraints());
+        rootConstraints.simpleNames.putAll(cachedRoot.get().getSimpleNames());
+      } else if (fingerprint.isPresent()) {
+        rootsToParse.put(root, fingerprint.get());
+      } else {
+        uncacheableRoots.add(root);
       }
     }
 
-    return toJson(classNameToValidationRulesMap);
+    Collection<URL> roots = new ArrayList<>(rootsToParse.keySet());
+    roots.addAll(uncacheableRoots);
+    // classes which can not be attributed to one of the parsed roots are merged after all roots
+    RootConstraints unattributed = new RootConstraints();
+    if (!roots.isEmpty()) {
+      Map<Class<?>, ClassConstraints> extracted = extractValidationRules(classpathScanner.findClassesToParse(roots));
+      extracted.forEach((clazz, classValidationRules) -> {
+        RootConstraints rootConstraints = parsedRootOf(clazz, roots).map(constraintsByRoot::get).orElse(unattributed);
+        rootConstraints.constraints.put(clazz.getName(), classValidationRules);
+        rootConstraints.simpleNames.put(clazz.getName(), clazz.getSimpleName());
+        rootConstraints.classes.put(clazz, classValidationRules);
+      });
+      rootsToParse.forEach((root, fingerprint) -> cache.store(root, fingerprint,
+        constraintsByRoot.get(root).classes));
+    }
+
+    List<RootConstraints> inClasspathOrder = new ArrayList<>(constraintsByRoot.values());
+    inClasspathOrder.add(unattributed);
+    for (RootConstraints rootConstraints : inClasspathOrder) {
+      rootConstraints.constraints.forEach(constraintsByClassName::putIfAbsent);
+      rootConstraints.simpleNames.forEach(simpleNames::putIfAbsent);
+    }
   }
 
-  @SneakyThrows(IOException.class)
-  private String toJson(Map<String, ClassConstraints> classNameToValidationRulesMap) {
-    ObjectMapper objectMapper = new ObjectMapper();
+  private static Optional<URL> parsedRootOf(Class<?> clazz, Collection<URL> parsedRoots) {
+    Optional<URL> classRoot = ConstraintModelCache.rootOf(clazz);
+    return parsedRoots.stream().filter(root -> classRoot.filter(value -> ConstraintModelCache.isSameRoot(value, root))
+      .isPresent()).findFirst();
+  }
 
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(MinimalMap.class, new MinimalMapSerializer());
-    objectMapper.registerModule(module);
+  /**
+   * @return classes which have constraints mapped to their constraints, ordered by class name
+   */
+  private Map<Class<?>, ClassConstraints> extractValidationRules(Collection<Class<?>> classesToParse) {
+    List<Class<?>> classes = classesToParse.stream().filter(Objects::nonNull)
+      .sorted(Comparator.comparing(Class::getName)).collect(Collectors.toList());
+    List<ClassConstraints> allClassValidationRules = extractValidationRules(classes);
 
-    ObjectWriter ow = objectMapper.writer().withDefaultPrettyPrinter();
-    return ow.writeValueAsString(classNameToValidationRulesMap);
+    Map<Class<?>, ClassConstraints> result = new LinkedHashMap<>();
+    for (int i = 0; i < classes.size(); i++) {
+      if (allClassValidationRules.get(i).size() > 0) {
+        result.put(classes.get(i), allClassValidationRules.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return constraints of the passed classes, in the same order
+   */
+  private List<ClassConstraints> extractValidationRules(List<Class<?>> classes) {
+    // the constraints of base classes are extracted once for all their subclasses in this pass
+    DeclaredConstraints declaredConstraints = newDeclaredConstraints();
+    int parallelism = options.getParallelism() == null ? 1 : options.getParallelism();
+    if (parallelism <= 1 || classes.size() <= 1) {
+      return classes.stream().map(clazz -> extractValidationRules(clazz, declaredConstraints))
+        .collect(Collectors.toList());
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return pool.submit(() -> classes.parallelStream().map(clazz -> extractValidationRules(clazz,
+        declaredConstraints)).collect(Collectors.toList())).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while extracting the constraints.", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private ClassConstraints extractValidationRules(Class<?> clazz, DeclaredConstraints declaredConstraints) {
+    return new AnnotatedClass(clazz, declaredConstraints).extractValidationRules();
+  }
+
+  private DeclaredConstraints newDeclaredConstraints() {
+    return new DeclaredConstraints(fieldExclusions, constraintHandlers);
+  }
+
+  /**
+   * Constraints found in a single classpath root, cached or parsed.
+   */
+  private static final class RootConstraints {
+    private final Map<String, ClassConstraints> constraints = new LinkedHashMap<>();
+    private final Map<String, String> simpleNames = new HashMap<>();
+    // parsed classes only, these are stored in the cache
+    private final Map<Class<?>, ClassConstraints> classes = new LinkedHashMap<>();
+  }
+
+  /**
+   * Constraints of a single class together with the name of the type under which they appear in the JSON document.
+   */
+  static final class ParsedClass {
+    @Getter
+    private final String typeName;
+    @Getter
+    private final ClassConstraints constraints;
+
+    /**
+     * Constructor. The constraints are frozen, serialization and subset queries run against the compact form.
+     *
+     * @param typeName    type name in the JSON document, the simple or the full class name
+     * @param constraints constraints of the class
+     */
+    ParsedClass(String typeName, ClassConstraints constraints) {
+      this.typeName = typeName;
+      this.constraints = constraints.freeze();
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -0,0 +1,140 @@
+package com.github.valdr;
+
+import lombok.SneakyThrows;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP content codings in which the validation rules document is offered, in order of preference.
+ */
+enum ContentEncoding {
+  // CHECKSTYLE:OFF
+  GZIP("gzip"),
+  DEFLATE("deflate"),
+  IDENTITY("identity");
+  // CHECKSTYLE:ON
+
+  private final String token;
+
+  ContentEncoding(String token) {
+    this.token = token;
+  }
+
+  @Override
+  public String toString() {
+    return token;
+  }
+
+  /**
+   * Encodes the passed bytes with this content coding at the best compression level.
+   *
+   * @param content bytes to encode
+   * @return encoded bytes, the passed array itself for {@link #IDENTITY}
+   */
+  byte[] encode(byte[] content) {
+    return encode(content, Deflater.BEST_COMPRESSION);
+  }
+
+  /**
+   * Encodes the passed bytes with this content coding.
+   *
+   * @param content bytes to encode
+   * @param level   compression level as understood by {@link Deflater#setLevel(int)}, ignored for {@link #IDENTITY}
+   * @return encoded bytes, the passed array itself for {@link #IDENTITY}
+   */
+  @SneakyThrows(IOException.class)
+  byte[] encode(byte[] content, int level) {
+    if (this == IDENTITY) {
+      return content;
+    }
+    ByteArrayOutputStream result = new ByteArrayOutputStream(content.length / 4);
+    if (this == GZIP) {
+      try (OutputStream compressor = new LeveledGzipOutputStream(result, level)) {
+        compressor.write(content);
+      }
+    } else {
+      Deflater deflater = new Deflater(level);
+      try (OutputStream compressor = new DeflaterOutputStream(result, deflater)) {
+        compressor.write(content);
+      } finally {
+        deflater.end();
+      }
+    }
+    return result.toByteArray();
+  }
+
+  /**
+   * Selects the content coding to use for a response based on the {@code Accept-Encoding} request header as
+   * specified in RFC 7231 section 5.3.4. Among the acceptable codings with the highest quality value the one
+   * declared first in this enum wins. If no coding is acceptable {@link #IDENTITY} is returned nonetheless.
+   *
+   * @param acceptEncoding value of the Accept-Encoding request header, may be {@code null}
+   * @return negotiated content coding
+   */
+  static ContentEncoding negotiate(String acceptEncoding) {
+    if (StringUtils.isBlank(acceptEncoding)) {
+      return IDENTITY;
+    }
+    ContentEncoding best = IDENTITY;
+    double bestQuality = 0;
+    for (ContentEncoding candidate : values()) {
+      double quality = qualityOf(candidate, acceptEncoding);
+      if (quality > bestQuality) {
+        best = candidate;
+        bestQuality = quality;
+      }
+    }
+    return best;
+  }
+
+  private static double qualityOf(ContentEncoding encoding, String acceptEncoding) {
+    double wildcardQuality = -1;
+    for (String element : StringUtils.split(acceptEncoding, ',')) {
+      String[] parameters = StringUtils.split(element, ';');
+      if (parameters.length == 0) {
+        continue;
+      }
+      String coding = parameters[0].trim();
+      if (coding.equalsIgnoreCase(encoding.token)) {
+        return parseQuality(parameters);
+      } else if ("*".equals(coding)) {
+        wildcardQuality = parseQuality(parameters);
+      }
+    }
+    if (wildcardQuality >= 0) {
+      return wildcardQuality;
+    }
+    // identity is always acceptable unless explicitly excluded, RFC 7231 section 5.3.4
+    return encoding == IDENTITY ? Double.MIN_VALUE : 0;
+  }
+
+  private static double parseQuality(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * {@link GZIPOutputStream} does not allow to set the compression level through its constructor.
+   */
+  private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+    LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+      super(out);
+      def.setLevel(level);
+    }
+  }
+}
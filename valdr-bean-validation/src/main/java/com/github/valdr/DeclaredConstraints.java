@@ -0,0 +1,67 @@
+package com.github.valdr;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Memo of the constraints of the fields each class declares itself, shared by all classes parsed in one pass. Model
+ * classes commonly extend a few base classes (ids, audit fields), the fields of those are reflected and extracted once
+ * per pass instead of once per subclass. {@link AnnotatedClass} composes the constraints of a class from the entries of
+ * the class and of its supertypes.
+ * <p>The memo may be used by concurrently parsing threads. The constraints of a class are extracted outside of the map,
+ * two threads asking for the same class at the same time may both extract it, one of the results is kept.
+ */
+final class DeclaredConstraints {
+  private final Map<Class<?>, List<Map.Entry<String, FieldConstraints>>> constraintsByClass =
+    new ConcurrentHashMap<>();
+  private final FieldExclusions excludedFields;
+  private final ConstraintHandlers constraintHandlers;
+
+  /**
+   * @param excludedFields     fields which are skipped by the parser
+   * @param constraintHandlers only the annotation classes registered there are considered
+   */
+  DeclaredConstraints(FieldExclusions excludedFields, ConstraintHandlers constraintHandlers) {
+    this.excludedFields = excludedFields;
+    this.constraintHandlers = constraintHandlers;
+  }
+
+  /**
+   * @param clazz class or interface
+   * @return field name to constraints for the fields declared by the class which have at least one constraint, in
+   * declaration order
+   */
+  List<Map.Entry<String, FieldConstraints>> of(Class<?> clazz) {
+    List<Map.Entry<String, FieldConstraints>> constraints = constraintsByClass.get(clazz);
+    if (constraints == null) {
+      constraints = extract(clazz);
+      List<Map.Entry<String, FieldConstraints>> previous = constraintsByClass.putIfAbsent(clazz, constraints);
+      if (previous != null) {
+        constraints = previous;
+      }
+    }
+    return constraints;
+  }
+
+  private List<Map.Entry<String, FieldConstraints>> extract(Class<?> clazz) {
+    List<Map.Entry<String, FieldConstraints>> constraints = new ArrayList<>();
+    for (Field field : clazz.getDeclaredFields()) {
+      // the annotations are read once, irrelevant ones are skipped by AnnotatedField through a single lookup each
+      Annotation[] annotations = field.getDeclaredAnnotations();
+      if (annotations.length > 0 && !excludedFields.isExcluded(field)) {
+        FieldConstraints fieldConstraints = new AnnotatedField(field, constraintHandlers)
+          .extractValidationRules(annotations);
+        if (fieldConstraints.size() > 0) {
+          constraints.add(new AbstractMap.SimpleImmutableEntry<>(field.getName(), fieldConstraints));
+        }
+      }
+    }
+    return constraints.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(constraints);
+  }
+}
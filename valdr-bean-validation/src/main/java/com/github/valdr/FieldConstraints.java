@@ -1,14 +1,18 @@
 package com.github.valdr;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Maps constraint name to constraint attributes (Bean Validation annotation attributes).
+ * Maps constraint name to constraint attributes (Bean Validation annotation attributes). Mutable until {@link
+ * #freeze() frozen}.
  */
 public class FieldConstraints implements MinimalMap<MinimalObjectMap> {
-  private final Map<String, MinimalObjectMap> map = new HashMap<>();
+  private Map<String, MinimalObjectMap> map = new HashMap<>();
 
   @Override
   public Set<Map.Entry<String, MinimalObjectMap>> entrySet() {
@@ -24,4 +28,23 @@ public class FieldConstraints implements MinimalMap<MinimalObjectMap> {
   public int size() {
     return map.size();
   }
+
+  /**
+   * Replaces the map by a {@link FrozenMap} with the same iteration order and the attributes by immutable {@link
+   * SharedConstraintAttributes}, which applies their decorators once. Freezing frozen constraints has no effect.
+   *
+   * @return this instance, immutable from now on
+   */
+  FieldConstraints freeze() {
+    if (!(map instanceof FrozenMap)) {
+      List<Map.Entry<String, MinimalObjectMap>> entries = new ArrayList<>(map.size());
+      for (Map.Entry<String, MinimalObjectMap> entry : map.entrySet()) {
+        MinimalObjectMap attributes = entry.getValue();
+        entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(),
+          attributes instanceof SharedConstraintAttributes ? attributes : new SharedConstraintAttributes(attributes)));
+      }
+      map = new FrozenMap<>(entries);
+    }
+    return this;
+  }
 }
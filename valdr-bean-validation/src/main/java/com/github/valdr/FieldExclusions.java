@@ -0,0 +1,128 @@
+package com.github.valdr;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Excluded fields, configured as {@code declaringClass#field} (e.g. {@code com.acme.Person#shoeSize}). The class
+ * part may be a pattern as understood by {@link ClassNameMatcher} and the field part may contain {@code *} wildcards,
+ * e.g. {@code com.acme.*#internal*}.
+ * <p>The exclusions are indexed by declaring class. The exclusions applying to a class are resolved once, after that
+ * testing a field of the class neither builds strings nor scans the configured list.
+ */
+final class FieldExclusions {
+  private static final String SEPARATOR = "#";
+  private static final ClassExclusions NONE = new ClassExclusions(Collections.emptySet(), Collections.emptyList());
+
+  private final Map<String, List<String>> fieldsByClassName = new HashMap<>();
+  private final List<ClassPattern> classPatterns = new ArrayList<>();
+  // keyed by name, classes loaded by a throwaway class loader must not be kept reachable
+  private final Map<String, ClassExclusions> exclusionsByClassName = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param excludedFields fully qualified field names or patterns, entries without {@code #} are ignored
+   */
+  FieldExclusions(Iterable<String> excludedFields) {
+    for (String excludedField : excludedFields) {
+      String trimmed = StringUtils.trimToEmpty(excludedField);
+      String className = StringUtils.substringBefore(trimmed, SEPARATOR);
+      String fieldName = StringUtils.substringAfter(trimmed, SEPARATOR);
+      if (className.isEmpty() || fieldName.isEmpty()) {
+        continue;
+      }
+      if (className.contains(Wildcard.WILDCARD)) {
+        classPatterns.add(new ClassPattern(new ClassNameMatcher(Collections.singletonList(className)), fieldName));
+      } else {
+        fieldsByClassName.computeIfAbsent(className, key -> new ArrayList<>()).add(fieldName);
+      }
+    }
+  }
+
+  /**
+   * @param field field to test
+   * @return whether the field is excluded
+   */
+  boolean isExcluded(Field field) {
+    if (fieldsByClassName.isEmpty() && classPatterns.isEmpty()) {
+      return false;
+    }
+    String className = field.getDeclaringClass().getName();
+    ClassExclusions exclusions = exclusionsByClassName.get(className);
+    if (exclusions == null) {
+      exclusions = exclusionsByClassName.computeIfAbsent(className, this::resolve);
+    }
+    return exclusions.isExcluded(field.getName());
+  }
+
+  private ClassExclusions resolve(String declaringClassName) {
+    List<String> fieldNames = new ArrayList<>(fieldsByClassName.getOrDefault(declaringClassName,
+      Collections.emptyList()));
+    for (ClassPattern classPattern : classPatterns) {
+      if (classPattern.classNameMatcher.matches(declaringClassName)) {
+        fieldNames.add(classPattern.fieldName);
+      }
+    }
+    if (fieldNames.isEmpty()) {
+      return NONE;
+    }
+    Set<String> exactFieldNames = new HashSet<>();
+    List<Wildcard> fieldPatterns = new ArrayList<>();
+    for (String fieldName : fieldNames) {
+      if (fieldName.contains(Wildcard.WILDCARD)) {
+        fieldPatterns.add(new Wildcard(fieldName));
+      } else {
+        exactFieldNames.add(fieldName);
+      }
+    }
+    return new ClassExclusions(exactFieldNames, fieldPatterns);
+  }
+
+  /**
+   * Field name or pattern excluded from all classes whose name matches a pattern.
+   */
+  private static final class ClassPattern {
+    private final ClassNameMatcher classNameMatcher;
+    private final String fieldName;
+
+    private ClassPattern(ClassNameMatcher classNameMatcher, String fieldName) {
+      this.classNameMatcher = classNameMatcher;
+      this.fieldName = fieldName;
+    }
+  }
+
+  /**
+   * Exclusions which apply to the fields declared by a single class.
+   */
+  private static final class ClassExclusions {
+    private final Set<String> fieldNames;
+    private final List<Wildcard> fieldPatterns;
+
+    private ClassExclusions(Set<String> fieldNames, List<Wildcard> fieldPatterns) {
+      this.fieldNames = fieldNames;
+      this.fieldPatterns = fieldPatterns;
+    }
+
+    private boolean isExcluded(String fieldName) {
+      if (fieldNames.contains(fieldName)) {
+        return true;
+      }
+      for (int i = 0; i < fieldPatterns.size(); i++) {
+        if (fieldPatterns.get(i).matches(fieldName)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
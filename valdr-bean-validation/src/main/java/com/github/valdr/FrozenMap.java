@@ -0,0 +1,113 @@
+package com.github.valdr;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>Immutable map backed by an array of keys and an array of values, both sized exactly. It keeps the iteration order
+ * of the entries it was created from. Lookups scan the keys, which is fast for the few entries of the maps of the
+ * constraint model.
+ * <p>Compared to a {@link java.util.HashMap} there is neither a sparse table nor an object per entry; entries are only
+ * created while iterating.
+ *
+ * @param <V> value type
+ */
+final class FrozenMap<V> extends AbstractMap<String, V> {
+  private final String[] keys;
+  private final Object[] values;
+
+  /**
+   * Constructor.
+   *
+   * @param entries entries to copy, in iteration order
+   */
+  FrozenMap(Collection<? extends Map.Entry<String, ? extends V>> entries) {
+    keys = new String[entries.size()];
+    values = new Object[entries.size()];
+    int i = 0;
+    for (Map.Entry<String, ? extends V> entry : entries) {
+      keys[i] = entry.getKey();
+      values[i] = entry.getValue();
+      i++;
+    }
+  }
+
+  /**
+   * @param map map to freeze
+   * @param <V> value type
+   * @return the passed map if it is frozen already, a frozen copy otherwise
+   */
+  @SuppressWarnings("unchecked")
+  static <V> Map<String, V> of(Map<String, ? extends V> map) {
+    return map instanceof FrozenMap ? (Map<String, V>) map : new FrozenMap<>(map.entrySet());
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  @Override
+  public Set<Map.Entry<String, V>> entrySet() {
+    return new AbstractSet<Map.Entry<String, V>>() {
+      @Override
+      public Iterator<Map.Entry<String, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Iterates the entries in array order.
+   */
+  private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+    private int next;
+
+    @Override
+    public boolean hasNext() {
+      return next < keys.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map.Entry<String, V> next() {
+      if (next >= keys.length) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<String, V> entry = new AbstractMap.SimpleImmutableEntry<>(keys[next], (V) values[next]);
+      next++;
+      return entry;
+    }
+  }
+}
@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -29,7 +31,9 @@ public final class Options {
 
   /**
    * Collection of fully qualified class names (e.g. com.company.abc.model.Token) to exclude from parsing. Naturally
-   * this only makes sense for classes contained in packages included in {@code modelPackages}.
+   * this only makes sense for classes contained in packages included in {@code modelPackages}. Entries may contain
+   * wildcards: {@code *} matches any characters within a package or class name, {@code **} matches any number of
+   * packages (e.g. com.company.**.dto.*).
    *
    * Mandatory: no
    * Use: CLI/Servlet
@@ -39,7 +43,8 @@ public final class Options {
   /**
    * Collection of fully qualified field names (e.g. com.company.abc.model.Person#shoeSize). Fields contained in this
    * list will not be included in the constraints JSON document. Naturally this only makes sense for fields of classes
-   * contained in packages included in {@code modelPackages}.
+   * contained in packages included in {@code modelPackages}. The class part may contain wildcards as in {@code
+   * excludedClasses}, the field part may contain {@code *} (e.g. com.company.**.model.*#internal*).
    *
    * Mandatory: no
    * Use: CLI/Servlet
@@ -64,6 +69,52 @@ public final class Options {
    */
   private Boolean outputFullTypeName = Boolean.FALSE;
 
+  /**
+   * Whether the JSON document is pretty printed (default) or minified. Minified output is considerably smaller.
+   *
+   * Mandatory: no
+   * Use: CLI/Servlet
+   */
+  private Boolean prettyPrint = Boolean.TRUE;
+
+  /**
+   * Number of threads which extract the constraints of the model classes in parallel. If 1 (default) the classes are
+   * processed sequentially. The resulting document is the same either way.
+   *
+   * Mandatory: no
+   * Use: CLI/Servlet
+   */
+  private Integer parallelism = 1;
+
+  /**
+   * Maximum number of classpath roots (directories or JARs) containing model packages which are scanned concurrently,
+   * one thread per root. This also limits the number of JARs open at the same time during the scan. If 1 the roots are
+   * scanned one after another.
+   *
+   * Mandatory: no
+   * Use: CLI/Servlet
+   */
+  private Integer scanParallelism = 4;
+
+  /**
+   * Directory in which the constraints extracted from each classpath root (directory or JAR) are cached across JVM
+   * restarts. Upon the next parser run only roots which changed since are parsed again. If omitted (default) nothing
+   * is cached.
+   *
+   * Mandatory: no
+   * Use: CLI/Servlet
+   */
+  private String cacheDirectory = StringUtils.EMPTY;
+
+  /**
+   * Whether changes to classpath roots are detected by hashing their content in addition to comparing sizes and
+   * modification times (default: false). Only relevant if {@code cacheDirectory} is configured.
+   *
+   * Mandatory: no
+   * Use: CLI/Servlet
+   */
+  private Boolean cacheContentHash = Boolean.FALSE;
+
   /**
    * In case the Servlet is deployed under a different domain than the valdr client you can use <a
    * href="http://en.wikipedia.org/wiki/Cross-origin_resource_sharing">CORS</a> to access that resource. If omitted no
@@ -74,6 +125,33 @@ public final class Options {
    */
   private String corsAllowOriginPattern = StringUtils.EMPTY;
 
+  /**
+   * Number of seconds clients and proxies may cache the validation rules document without revalidating it, sent as
+   * {@code Cache-Control: max-age} HTTP header. If negative (default) no Cache-Control header is sent.
+   *
+   * Mandatory: no
+   * Use: Servlet
+   */
+  private Integer cacheControlMaxAge = -1;
+
+  /**
+   * ISO-8601 instant (e.g. 2014-06-27T10:15:30Z) sent as {@code Last-Modified} HTTP header, typically the build time
+   * of the model classes. If omitted the time at which the validation rules document was built is used.
+   *
+   * Mandatory: no
+   * Use: Servlet
+   */
+  private String lastModified = StringUtils.EMPTY;
+
+  /**
+   * Maximum number of seconds a request waits for the validation rules document if it is being built by a concurrent
+   * request. Requests which give up are answered with 503 Service Unavailable and a {@code Retry-After} header.
+   *
+   * Mandatory: no
+   * Use: Servlet
+   */
+  private Integer buildWaitTimeoutSeconds = 30;
+
   /**
    * File to which the validation meta-model (JSON) is written. Missing folders are created automatically. If omitted
    * the output is sent to system out.
@@ -92,6 +170,26 @@ public final class Options {
     if (this.getModelPackages().isEmpty()) {
       throw new InvalidConfigurationException("Model package names must not be empty.");
     }
+    if (this.getPrettyPrint() == null) {
+      throw new InvalidConfigurationException("Pretty print must be either true or false.");
+    }
+    if (this.getParallelism() == null || this.getParallelism() < 1) {
+      throw new InvalidConfigurationException("Parallelism must be at least 1.");
+    }
+    if (this.getScanParallelism() == null || this.getScanParallelism() < 1) {
+      throw new InvalidConfigurationException("Scan parallelism must be at least 1.");
+    }
+    if (this.getBuildWaitTimeoutSeconds() == null || this.getBuildWaitTimeoutSeconds() < 0) {
+      throw new InvalidConfigurationException("Build wait timeout must not be negative.");
+    }
+    if (StringUtils.isNotEmpty(this.getLastModified())) {
+      try {
+        Instant.parse(this.getLastModified());
+      } catch (DateTimeParseException e) {
+        throw new InvalidConfigurationException("Last modified '" + this.getLastModified() + "' is not an ISO-8601 " +
+          "instant.");
+      }
+    }
   }
 
   /**
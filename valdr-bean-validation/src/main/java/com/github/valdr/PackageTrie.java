@@ -0,0 +1,98 @@
+package com.github.valdr;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Prefix trie of package names, one node per package name segment. Packages which are sub-packages of other
+ * packages in the trie are dropped, e.g. {@code com.acme.orders} is dropped if {@code com.acme} is contained as well.
+ * <p>Membership of a class is tested in time proportional to the length of its name rather than to the number of
+ * packages.
+ */
+final class PackageTrie {
+  private final Node root = new Node();
+
+  /**
+   * Constructor.
+   *
+   * @param packageNames package names, surrounding whitespace and trailing dots are ignored, as are empty names
+   */
+  PackageTrie(Iterable<String> packageNames) {
+    for (String packageName : packageNames) {
+      String normalized = StringUtils.stripEnd(StringUtils.trimToEmpty(packageName), ".");
+      if (!normalized.isEmpty()) {
+        add(normalized);
+      }
+    }
+  }
+
+  /**
+   * Tests whether a class or a resource is in one of the packages or their sub-packages.
+   *
+   * @param name class or resource name, segments separated by dots, e.g. {@code com.acme.Person} or {@code
+   *             com.acme.Person.class}
+   * @return whether the name is below one of the packages
+   */
+  boolean contains(String name) {
+    Node node = root;
+    int start = 0;
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) == '.') {
+        node = node.children.get(name.substring(start, i));
+        if (node == null) {
+          return false;
+        }
+        if (node.terminal) {
+          return true;
+        }
+        start = i + 1;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the packages which are not sub-packages of other packages, in alphabetical order
+   */
+  List<String> getPackageNames() {
+    List<String> packageNames = new ArrayList<>();
+    collect(root, "", packageNames);
+    return packageNames;
+  }
+
+  private void add(String packageName) {
+    Node node = root;
+    for (String segment : StringUtils.split(packageName, '.')) {
+      if (node.terminal) {
+        // already covered by a parent package
+        return;
+      }
+      node = node.children.computeIfAbsent(segment, key -> new Node());
+    }
+    node.terminal = true;
+    // sub-packages added before are covered by this package
+    node.children.clear();
+  }
+
+  private void collect(Node node, String prefix, Collection<String> packageNames) {
+    node.children.keySet().stream().sorted().forEach(segment -> {
+      Node child = node.children.get(segment);
+      String packageName = prefix + segment;
+      if (child.terminal) {
+        packageNames.add(packageName);
+      } else {
+        collect(child, packageName + ".", packageNames);
+      }
+    });
+  }
+
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private boolean terminal;
+  }
+}
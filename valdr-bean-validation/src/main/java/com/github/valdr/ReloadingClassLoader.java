@@ -0,0 +1,59 @@
+package com.github.valdr;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * <p>Throwaway class loader which defines the classes of the model packages anew from the class files in the classpath
+ * roots, rather than asking its parent first. Classes whose class files changed after they had been loaded by the
+ * application are therefore seen in their current state, without class redefinition.
+ * <p>All other classes, including the relevant annotation classes even if they are in a model package, are loaded by
+ * the parent so that annotations are recognized by their classes as usual.
+ */
+final class ReloadingClassLoader extends URLClassLoader {
+  static {
+    registerAsParallelCapable();
+  }
+
+  private final PackageTrie modelPackages;
+  private final Set<String> parentClassNames;
+
+  /**
+   * Constructor.
+   *
+   * @param roots            classpath roots (directories or JARs) to load the classes of the model packages from
+   * @param parent           loads all other classes
+   * @param modelPackages    packages whose classes are defined anew
+   * @param parentClassNames names of classes which are always loaded by the parent, e.g. the relevant annotations
+   */
+  ReloadingClassLoader(Collection<URL> roots, ClassLoader parent, PackageTrie modelPackages,
+    Set<String> parentClassNames) {
+    super(roots.toArray(new URL[0]), parent);
+    this.modelPackages = modelPackages;
+    this.parentClassNames = parentClassNames;
+  }
+
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    if (!modelPackages.contains(name) || parentClassNames.contains(name)) {
+      return super.loadClass(name, resolve);
+    }
+    synchronized (getClassLoadingLock(name)) {
+      Class<?> clazz = findLoadedClass(name);
+      if (clazz == null) {
+        try {
+          clazz = findClass(name);
+        } catch (ClassNotFoundException e) {
+          // not in the roots, e.g. generated at runtime
+          return super.loadClass(name, resolve);
+        }
+      }
+      if (resolve) {
+        resolveClass(clazz);
+      }
+      return clazz;
+    }
+  }
+}
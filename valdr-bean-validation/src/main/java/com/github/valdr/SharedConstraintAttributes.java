@@ -0,0 +1,71 @@
+package com.github.valdr;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>Immutable constraint attributes, shared by all equal constraints of a model if interned, see
+ * {@link ConstraintInterner}. The entries of the wrapped (possibly decorated) attributes are copied once, in their
+ * iteration order, into a {@link FrozenMap}. Hence, decorators are applied only once.
+ * <p>The JSON encoding of the attributes is cached as well, so that a shared constraint is encoded only once per output
+ * format no matter how often it occurs in the model.
+ */
+public final class SharedConstraintAttributes implements MinimalObjectMap {
+  private final Map<String, Object> map;
+  private volatile SerializableString prettyJson;
+  private volatile SerializableString compactJson;
+
+  /**
+   * Constructor.
+   *
+   * @param attributes attributes to copy
+   */
+  SharedConstraintAttributes(MinimalObjectMap attributes) {
+    this.map = new FrozenMap<>(attributes.entrySet());
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    return map.entrySet();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * Not supported, shared attributes are immutable.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public Object put(String key, Object value) {
+    throw new UnsupportedOperationException("Shared constraint attributes are immutable");
+  }
+
+  /**
+   * Returns the JSON encoding of these attributes, encoding them on first access. Concurrent first accesses may encode
+   * more than once, which is harmless as the encoder always yields the same result.
+   *
+   * @param prettyPrint whether the pretty printed or the minified encoding is requested
+   * @param encoder     encodes attributes as JSON object
+   * @return the cached encoding
+   */
+  public SerializableString getJson(boolean prettyPrint, Function<MinimalObjectMap, String> encoder) {
+    SerializableString json = prettyPrint ? prettyJson : compactJson;
+    if (json == null) {
+      json = new SerializedString(encoder.apply(this));
+      if (prettyPrint) {
+        prettyJson = json;
+      } else {
+        compactJson = json;
+      }
+    }
+    return json;
+  }
+}
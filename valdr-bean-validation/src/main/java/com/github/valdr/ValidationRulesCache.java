@@ -0,0 +1,191 @@
+package com.github.valdr;
+
+import com.github.valdr.serializer.ConstraintsJsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Holds the validation rules document produced by a {@link ConstraintParser} so that the expensive classpath scan
+ * and serialization only happen once rather than on every request.
+ * <p>If caching is disabled every invocation of {@link #get()} runs the parser again. This is mainly useful during
+ * development when model classes change while the application is running.
+ * <p>Concurrent builds are coalesced: the first thread that needs a document runs the parser, all other threads
+ * arriving while that build is in flight wait (for a bounded time) for its result rather than starting their own.
+ * <p>If individual model classes are known to have changed, the cached document can be {@link #update(Set, Set)
+ * updated} for these classes instead of being invalidated.
+ */
+public class ValidationRulesCache {
+  private final Logger logger = LoggerFactory.getLogger(ValidationRulesCache.class);
+  private final ConstraintParser parser;
+  private final ConstraintsJsonWriter writer;
+  private final boolean enabled;
+  private final long buildWaitTimeoutMillis;
+  private final AtomicReference<CompletableFuture<ValidationRulesSnapshot>> inFlightBuild = new AtomicReference<>();
+  private volatile ValidationRulesSnapshot snapshot;
+  private long generation;
+
+  /**
+   * Constructor.
+   *
+   * @param parser                 parser used to (re-)build the validation rules document
+   * @param writer                 writer used to encode the constraints extracted by the parser
+   * @param enabled                if {@code false} the document is rebuilt upon each invocation of {@link #get()}
+   * @param buildWaitTimeoutMillis maximum time a thread waits for a build started by another thread
+   */
+  ValidationRulesCache(ConstraintParser parser, ConstraintsJsonWriter writer, boolean enabled,
+    long buildWaitTimeoutMillis) {
+    this.parser = parser;
+    this.writer = writer;
+    this.enabled = enabled;
+    this.buildWaitTimeoutMillis = buildWaitTimeoutMillis;
+  }
+
+  /**
+   * Returns the cached validation rules document. If there is none yet (or if caching is disabled) the document is
+   * built first, or - if another thread is already building it - awaited.
+   *
+   * @return validation rules document
+   * @throws BuildTimeoutException if the build run by another thread did not complete in time
+   */
+  ValidationRulesSnapshot get() {
+    while (true) {
+      ValidationRulesSnapshot current = snapshot;
+      if (enabled && current != null) {
+        return current;
+      }
+      CompletableFuture<ValidationRulesSnapshot> build = inFlightBuild.get();
+      if (build != null) {
+        return await(build);
+      }
+      CompletableFuture<ValidationRulesSnapshot> ownBuild = new CompletableFuture<>();
+      if (inFlightBuild.compareAndSet(null, ownBuild)) {
+        // a build may have published its document between reading the snapshot and claiming the slot
+        current = snapshot;
+        if (enabled && current != null) {
+          inFlightBuild.compareAndSet(ownBuild, null);
+          ownBuild.complete(current);
+          return current;
+        }
+        return build(ownBuild);
+      }
+      // another thread started a build in the meantime, join it
+    }
+  }
+
+  /**
+   * Discards the cached validation rules document. The next request will trigger a new parser run. A build which is
+   * in flight while the cache is invalidated is not cached as it may not reflect the latest state.
+   */
+  public void invalidate() {
+    synchronized (this) {
+      generation++;
+      snapshot = null;
+    }
+    inFlightBuild.set(null);
+  }
+
+  /**
+   * Patches the cached validation rules document after individual model classes changed: only the passed classes are
+   * parsed and encoded again. If no document is cached the cache is just invalidated, as it is if parsing a class
+   * fails.
+   *
+   * @param changedClassNames fully qualified names of classes which were added or changed, including the subclasses
+   *                          of changed classes
+   * @param removedClassNames fully qualified names of classes which no longer exist
+   */
+  void update(Set<String> changedClassNames, Set<String> removedClassNames) {
+    Map<String, Optional<ConstraintParser.ParsedClass>> changedClasses = new HashMap<>();
+    try {
+      changedClasses.putAll(parser.parseChangedClasses(changedClassNames));
+    } catch (RuntimeException e) {
+      logger.warn("Parsing the changed classes failed, the validation rules will be built again.", e);
+      invalidate();
+      return;
+    }
+    removedClassNames.forEach(className -> changedClasses.put(className, Optional.empty()));
+
+    synchronized (this) {
+      if (snapshot != null) {
+        // a build in flight may have missed the change, it must not replace the patched document
+        generation++;
+        snapshot = snapshot.patch(changedClasses);
+        return;
+      }
+    }
+    invalidate();
+  }
+
+  /**
+   * @return whether the validation rules document is cached
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  private ValidationRulesSnapshot build(CompletableFuture<ValidationRulesSnapshot> ownBuild) {
+    long buildGeneration = currentGeneration();
+    try {
+      ValidationRulesSnapshot result = ValidationRulesSnapshot.of(parser.parseClasses(), writer, enabled);
+      publish(result, buildGeneration);
+      ownBuild.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      ownBuild.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightBuild.compareAndSet(ownBuild, null);
+    }
+  }
+
+  private ValidationRulesSnapshot await(CompletableFuture<ValidationRulesSnapshot> build) {
+    try {
+      return build.get(buildWaitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new BuildTimeoutException(buildWaitTimeoutMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BuildTimeoutException(buildWaitTimeoutMillis);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+        new IllegalStateException(e.getCause());
+    }
+  }
+
+  private synchronized long currentGeneration() {
+    return generation;
+  }
+
+  private synchronized void publish(ValidationRulesSnapshot result, long buildGeneration) {
+    if (enabled && buildGeneration == generation) {
+      snapshot = result;
+    }
+  }
+
+  /**
+   * Thrown if a thread gave up waiting for a validation rules document built by another thread.
+   */
+  public static class BuildTimeoutException extends RuntimeException {
+    /**
+     * C'tor.
+     *
+     * @param timeoutMillis time in milliseconds after which the thread gave up
+     */
+    public BuildTimeoutException(long timeoutMillis) {
+      super("Validation rules document was not built within " + timeoutMillis + "ms.");
+    }
+  }
+}
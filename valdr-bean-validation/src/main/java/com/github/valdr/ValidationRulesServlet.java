@@ -2,6 +2,7 @@ package com.github.valdr;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.valdr.serializer.ConstraintsJsonWriter;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -16,23 +17,93 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
 
 /**
- * <p>Produces JSON validation rules on the fly parsing model classes in your classpath. Upon each request the
+ * <p>Produces JSON validation rules on the fly parsing model classes in your classpath. Upon the first request the
  * configured model packages in the classpath are parsed for classes containing supported or
  * custom Bean Validation annotations. The Servlet then builds and returns a JSON document with all validation rules
- * (i.e. Bean Validation constraints). The JSON document adheres to structure specified by valdr.</p>
+ * (i.e. Bean Validation constraints). The JSON document adheres to structure specified by valdr. It is cached and
+ * returned as-is for all subsequent requests until the cache is invalidated.</p>
  * <p>
  * Servlet can be configured using following {@link jakarta.servlet.ServletConfig} init parameters (* = mandatory):
  * <ul>
  * <li>configFile: path to JSON configuration file, if omitted valdr-bean-validation.json is expected at root of class
  * path</li>
+ * <li>cacheRules: whether the JSON document is cached (default) or the model classes are parsed again upon each
+ * request (set to 'false', useful during development)</li>
+ * <li>warmUp: if 'true' the JSON document is built on a background thread right away rather than upon the first
+ * request</li>
+ * <li>watchClasses: if 'true' the class files of the model packages in classpath directories (e.g. an exploded
+ * {@code WEB-INF/classes}) are watched. Upon a change only the changed classes and their subclasses are parsed again
+ * and the cached JSON document is patched. Changed classes are loaded from their class files through a throwaway
+ * class loader, hence changes are seen even if the application loaded the classes before. Requires caching.</li>
  * </ul>
+ * <p>
+ * The servlet reports whether it is ready to serve the JSON document without delay through the servlet context
+ * attribute {@link #READY_ATTRIBUTE} and the sub-path {@code /ready} (requires a servlet mapping with a trailing
+ * {@code /*}), which answers with 200 OK or 503 Service Unavailable. With warm-up enabled the servlet is ready once the
+ * warm-up has succeeded, a failed warm-up is retried with increasing delays. Otherwise it is ready right after
+ * initialization.
+ * <p>
+ * Responses carry an {@code ETag} and a {@code Last-Modified} header. Conditional requests ({@code If-None-Match},
+ * {@code If-Modified-Since}) for an unchanged document are answered with 304 Not Modified. The document is compressed
+ * once per version and content coding, when the coding is first requested. Clients announcing support through {@code
+ * Accept-Encoding} receive the gzip or deflate variant.
+ * <p>
+ * The request parameter {@code types} restricts the JSON document to a comma-separated list of types (e.g. {@code
+ * ?types=Person,Address}), unknown types are ignored. Such documents are assembled from the type's JSON fragments
+ * encoded when the full document is built and are not compressed.
+ * <p>
+ * Requests arriving while the document is being built wait for that build instead of parsing the model classes
+ * themselves. If the build does not complete within the configured time they are answered with 503 Service
+ * Unavailable.
+ * <p>
+ * The {@link ValidationRulesCache} is published as servlet context attribute {@link #RULES_CACHE_ATTRIBUTE} so that
+ * other application components can invalidate it.
  *
  * @see Options
  */
 public class ValidationRulesServlet extends HttpServlet {
+  /**
+   * Name of the servlet context attribute under which the {@link ValidationRulesCache} is published.
+   */
+  public static final String RULES_CACHE_ATTRIBUTE = ValidationRulesServlet.class.getName() + ".rulesCache";
+  /**
+   * Name of the servlet context attribute under which the readiness ({@link Boolean}) of the servlet is published.
+   */
+  public static final String READY_ATTRIBUTE = ValidationRulesServlet.class.getName() + ".ready";
+  /**
+   * Path info of the readiness sub-path.
+   */
+  private static final String READY_PATH = "/ready";
+  /**
+   * Name of the request parameter which restricts the JSON document to a comma-separated list of types.
+   */
+  private static final String TYPES_PARAMETER = "types";
+  /**
+   * Time in milliseconds without further class file changes after which the collected changes are applied.
+   */
+  private static final long WATCH_QUIET_PERIOD_MILLIS = 200;
+  /**
+   * Delay in milliseconds before the first retry of a failed warm-up, doubled for each further retry.
+   */
+  private static final long WARM_UP_INITIAL_RETRY_DELAY_MILLIS = 1000;
+  /**
+   * Maximum delay in milliseconds between retries of a failed warm-up.
+   */
+  private static final long WARM_UP_MAX_RETRY_DELAY_MILLIS = 60000;
   /**
    * Logger for ValidationRulesServlet.
    */
@@ -45,14 +116,38 @@ public class ValidationRulesServlet extends HttpServlet {
    * CORS allow origin pattern.
    */
   private String corsAllowOriginPattern;
+  /**
+   * Value of the Cache-Control max-age directive in seconds, negative if no Cache-Control header is to be sent.
+   */
+  private int cacheControlMaxAge;
+  /**
+   * Configured Last-Modified time in milliseconds since the epoch, negative if the document build time is to be used.
+   */
+  private long lastModified;
+  /**
+   * Value of the Retry-After header sent if the validation rules document is not built in time.
+   */
+  private int retryAfterSeconds;
   /**
    * Holds info about reason for the invalid configuration.
    */
   private String invalidConfigurationMessage;
   /**
-   * Constraint parser.
+   * Cache for the validation rules produced by the constraint parser, {@code null} if not correctly configured.
    */
-  private ConstraintParser parser;
+  private ValidationRulesCache rulesCache;
+  /**
+   * Watches the class files of the model classes, {@code null} if not enabled.
+   */
+  private ClassFileWatcher classFileWatcher;
+  /**
+   * Builds the validation rules in the background, {@code null} if warm-up is not enabled.
+   */
+  private Thread warmUpThread;
+  /**
+   * Indicates that the servlet is ready to serve the validation rules without delay.
+   */
+  private volatile boolean ready;
 
   @Override
   public void init(ServletConfig config) throws ServletException {
@@ -62,23 +157,227 @@ public class ValidationRulesServlet extends HttpServlet {
     invalidConfigurationMessage = validate(options);
     correctlyConfigured = StringUtils.isEmpty(invalidConfigurationMessage);
     corsAllowOriginPattern = options.getCorsAllowOriginPattern();
+    cacheControlMaxAge = options.getCacheControlMaxAge() == null ? -1 : options.getCacheControlMaxAge();
+    lastModified = correctlyConfigured && StringUtils.isNotEmpty(options.getLastModified()) ?
+      Instant.parse(options.getLastModified()).toEpochMilli() : -1;
+
+    int buildWaitTimeoutSeconds = correctlyConfigured ? options.getBuildWaitTimeoutSeconds() : 0;
+    retryAfterSeconds = Math.max(1, buildWaitTimeoutSeconds);
 
-    parser = new ConstraintParser(options);
+    // the parser relies on validated options, an invalid configuration is only reported
+    if (correctlyConfigured) {
+      rulesCache = new ValidationRulesCache(new ConstraintParser(options), new ConstraintsJsonWriter(options
+        .getPrettyPrint()), isCacheEnabled(), TimeUnit.SECONDS.toMillis(buildWaitTimeoutSeconds));
+      publishRulesCache();
+    }
 
     logConfigurationStatus();
     logCorsStatus();
+    if (correctlyConfigured) {
+      logCacheStatus();
+    }
+
+    if (correctlyConfigured && isWatchClassesEnabled()) {
+      startWatchingClasses(options);
+    }
+
+    if (correctlyConfigured && isWarmUpEnabled()) {
+      setReady(false);
+      startWarmUp();
+    } else {
+      setReady(correctlyConfigured);
+    }
   }
 
   @Override
   protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-    if (correctlyConfigured) {
-      String json = parser.parse();
-      returnJson(response, json);
+    if (READY_PATH.equals(request.getPathInfo())) {
+      returnReadiness(response);
+    } else if (correctlyConfigured) {
+      returnRules(request, response);
     } else {
       sendErrorInvalidConfiguration(response);
     }
   }
 
+  @Override
+  public void destroy() {
+    if (warmUpThread != null) {
+      warmUpThread.interrupt();
+      warmUpThread = null;
+    }
+    if (classFileWatcher != null) {
+      try {
+        classFileWatcher.close();
+      } catch (IOException e) {
+        logger.warn("Cannot stop watching the class files.", e);
+      }
+      classFileWatcher = null;
+    }
+    super.destroy();
+  }
+
+  /**
+   * Discards the cached validation rules. They are rebuilt upon the next request. Does nothing if the servlet is not
+   * correctly configured.
+   */
+  public void invalidateCache() {
+    if (rulesCache != null) {
+      rulesCache.invalidate();
+    }
+  }
+
+  /**
+   * @return whether the servlet is ready to serve the validation rules without delay
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  private void returnRules(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ValidationRulesSnapshot snapshot;
+    try {
+      snapshot = rulesCache.get();
+    } catch (ValidationRulesCache.BuildTimeoutException e) {
+      sendErrorNotReady(response, e);
+      return;
+    }
+    Collection<String> typeNames = getRequestedTypeNames(request);
+    if (typeNames.isEmpty()) {
+      ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader("Accept-Encoding"));
+      setCorsHeader(response);
+      setCachingHeaders(response, snapshot, snapshot.getEtag(encoding));
+      if (isNotModified(request, snapshot, snapshot.getEtag(encoding))) {
+        sendNotModified(response);
+      } else {
+        returnJson(response, snapshot.getJson(encoding), encoding);
+      }
+    } else {
+      // subsets are small and assembled per request, they are therefore not compressed
+      String etag = snapshot.getEtagForTypes(typeNames);
+      setCorsHeader(response);
+      setCachingHeaders(response, snapshot, etag);
+      if (isNotModified(request, snapshot, etag)) {
+        sendNotModified(response);
+      } else {
+        returnJson(response, snapshot.getJsonForTypes(typeNames), ContentEncoding.IDENTITY);
+      }
+    }
+  }
+
+  private Collection<String> getRequestedTypeNames(HttpServletRequest request) {
+    Collection<String> typeNames = new LinkedHashSet<>();
+    String types = request.getParameter(TYPES_PARAMETER);
+    if (types != null) {
+      Arrays.stream(StringUtils.split(types, ',')).map(String::trim).filter(StringUtils::isNotEmpty)
+        .forEach(typeNames::add);
+    }
+    return typeNames;
+  }
+
+  private void returnReadiness(HttpServletResponse response) throws IOException {
+    response.setContentType("text/plain;charset=UTF-8");
+    response.setHeader("Cache-Control", "no-store");
+    response.setStatus(ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    response.getWriter().write(ready ? "ready" : "not ready");
+  }
+
+  private boolean isWarmUpEnabled() {
+    return Boolean.parseBoolean(getInitParameter("warmUp"));
+  }
+
+  private void startWarmUp() {
+    warmUpThread = new Thread(this::warmUp, "valdr-rules-warm-up");
+    warmUpThread.setDaemon(true);
+    warmUpThread.start();
+  }
+
+  /**
+   * Builds the validation rules until it succeeds or the thread is interrupted, the servlet is ready only afterwards.
+   */
+  private void warmUp() {
+    long retryDelay = WARM_UP_INITIAL_RETRY_DELAY_MILLIS;
+    while (!Thread.currentThread().isInterrupted()) {
+      long start = System.currentTimeMillis();
+      try {
+        rulesCache.get();
+        logger.info("Validation rules warmed up in {}ms.", System.currentTimeMillis() - start);
+        setReady(true);
+        return;
+      } catch (RuntimeException e) {
+        logger.error("Warming up the validation rules failed, retrying in {}ms.", retryDelay, e);
+      }
+      try {
+        Thread.sleep(retryDelay);
+      } catch (InterruptedException e) {
+        return;
+      }
+      retryDelay = Math.min(retryDelay * 2, WARM_UP_MAX_RETRY_DELAY_MILLIS);
+    }
+  }
+
+  private boolean isWatchClassesEnabled() {
+    return Boolean.parseBoolean(getInitParameter("watchClasses"));
+  }
+
+  private void startWatchingClasses(Options options) {
+    if (!rulesCache.isEnabled()) {
+      logger.warn("Watching the class files requires caching the validation rules, the class files are not watched.");
+      return;
+    }
+    Collection<Path> directories = new ArrayList<>();
+    for (URL root : new ClasspathScanner(options).getRoots()) {
+      Path directory = toDirectory(root);
+      if (directory != null) {
+        directories.add(directory);
+      }
+    }
+    if (directories.isEmpty()) {
+      logger.warn("None of the model packages is in a classpath directory, the class files are not watched.");
+      return;
+    }
+    try {
+      // nested model packages would otherwise be registered twice
+      Collection<String> packageNames = new PackageTrie(options.getModelPackages()).getPackageNames();
+      classFileWatcher = new ClassFileWatcher(directories, packageNames, rulesCache::update,
+        WATCH_QUIET_PERIOD_MILLIS);
+      classFileWatcher.start();
+      logger.info("Watching the class files of the model packages in {}.", directories);
+    } catch (IOException e) {
+      logger.warn("Cannot watch the class files of the model packages.", e);
+    }
+  }
+
+  private Path toDirectory(URL root) {
+    if (!"file".equals(root.getProtocol())) {
+      return null;
+    }
+    try {
+      Path path = Paths.get(root.toURI());
+      return Files.isDirectory(path) ? path : null;
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private void setReady(boolean ready) {
+    this.ready = ready;
+    if (getServletContext() != null) {
+      getServletContext().setAttribute(READY_ATTRIBUTE, ready);
+    }
+  }
+
+  private boolean isCacheEnabled() {
+    String cacheRules = getInitParameter("cacheRules");
+    return StringUtils.isEmpty(cacheRules) || Boolean.parseBoolean(cacheRules);
+  }
+
+  private void publishRulesCache() {
+    if (getServletContext() != null) {
+      getServletContext().setAttribute(RULES_CACHE_ATTRIBUTE, rulesCache);
+    }
+  }
+
   private Options loadOptions() {
     InputStream inputStream = null;
     String configFile = getInitParameter("configFile");
@@ -125,17 +424,86 @@ public class ValidationRulesServlet extends HttpServlet {
     logger.info(logMsg, corsAllowOriginPattern);
   }
 
+  private void logCacheStatus() {
+    if (rulesCache.isEnabled()) {
+      logger.info("Validation rules are cached after the first request.");
+    } else {
+      logger.info("Validation rules are not cached, model classes are parsed again upon each request.");
+    }
+  }
+
   private void sendErrorInvalidConfiguration(HttpServletResponse response) throws IOException {
     response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, invalidConfigurationMessage);
   }
 
-  private void returnJson(HttpServletResponse response, String json) throws IOException {
+  private void sendErrorNotReady(HttpServletResponse response, ValidationRulesCache.BuildTimeoutException e)
+    throws IOException {
+    logger.warn(e.getMessage());
     setCorsHeader(response);
+    response.setIntHeader("Retry-After", retryAfterSeconds);
+    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+  }
+
+  private boolean isNotModified(HttpServletRequest request, ValidationRulesSnapshot snapshot, String etag) {
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (ifNoneMatch != null) {
+      // If-Modified-Since must be ignored if If-None-Match is present, RFC 7232 section 3.3
+      return matchesEtag(ifNoneMatch, etag);
+    }
+    long ifModifiedSince = getIfModifiedSince(request);
+    return ifModifiedSince >= 0 && ifModifiedSince >= truncateToSeconds(getLastModified(snapshot));
+  }
+
+  private boolean matchesEtag(String ifNoneMatch, String etag) {
+    for (String candidate : StringUtils.split(ifNoneMatch, ',')) {
+      String trimmed = candidate.trim();
+      // If-None-Match uses the weak comparison function, RFC 7232 section 3.2
+      if ("*".equals(trimmed) || etag.equals(StringUtils.removeStart(trimmed, "W/"))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long getIfModifiedSince(HttpServletRequest request) {
+    try {
+      return request.getDateHeader("If-Modified-Since");
+    } catch (IllegalArgumentException e) {
+      // unparsable dates are ignored, RFC 7232 section 3.3
+      return -1;
+    }
+  }
+
+  private long getLastModified(ValidationRulesSnapshot snapshot) {
+    return lastModified >= 0 ? lastModified : snapshot.getBuiltAt();
+  }
+
+  private long truncateToSeconds(long millis) {
+    return millis / 1000 * 1000;
+  }
+
+  private void setCachingHeaders(HttpServletResponse response, ValidationRulesSnapshot snapshot, String etag) {
+    response.setHeader("Vary", "Accept-Encoding");
+    response.setHeader("ETag", etag);
+    response.setDateHeader("Last-Modified", getLastModified(snapshot));
+    if (cacheControlMaxAge >= 0) {
+      response.setHeader("Cache-Control", "max-age=" + cacheControlMaxAge);
+    }
+  }
+
+  private void sendNotModified(HttpServletResponse response) {
+    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+  }
+
+  private void returnJson(HttpServletResponse response, byte[] json, ContentEncoding encoding) throws IOException {
     response.setContentType("application/json;charset=UTF-8");
-    response.setContentLength(json.getBytes("utf-8").length);
-    PrintWriter writer = response.getWriter();
-    writer.write(json);
-    writer.close();
+    if (encoding != ContentEncoding.IDENTITY) {
+      response.setHeader("Content-Encoding", encoding.toString());
+    }
+    response.setContentLength(json.length);
+    OutputStream outputStream = response.getOutputStream();
+    outputStream.write(json);
+    outputStream.close();
   }
 
   private void setCorsHeader(HttpServletResponse response) {
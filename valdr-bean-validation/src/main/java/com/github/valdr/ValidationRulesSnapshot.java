@@ -0,0 +1,189 @@
+package com.github.valdr;
+
+import com.github.valdr.serializer.ConstraintsJsonWriter;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+/**
+ * Immutable result of a single {@link ConstraintParser} run: the validation rules JSON document, already encoded as
+ * UTF-8 bytes so that it can be written to any number of responses without further processing. The document is
+ * compressed in a {@link ContentEncoding} when it is first requested in it, and then kept for all later requests.
+ * Snapshots which are not cached serve a single request, they are compressed at the default level instead of the
+ * best one. Alongside the document the snapshot holds the HTTP validators (entity tag per encoding and build time)
+ * required to answer conditional requests.
+ * <p>The pre-encoded document members of all types are kept as well, so that documents for a subset of the types can
+ * be assembled without serializing anything, and so that a snapshot can be {@link #patch(Map) patched} by encoding
+ * only the classes which changed.
+ */
+final class ValidationRulesSnapshot {
+  private final Map<ContentEncoding, byte[]> encodedJson = new ConcurrentHashMap<>();
+  private final SortedMap<String, EncodedClass> classes;
+  private final Map<String, byte[]> members;
+  private final ConstraintsJsonWriter writer;
+  private final boolean cached;
+  private final byte[] utf8;
+  private final long builtAt;
+  private volatile String hash;
+
+  /**
+   * Constructor.
+   *
+   * @param classes pre-encoded document members per fully qualified class name, ordered by class name
+   * @param writer  writer which produced the members
+   * @param cached  whether the snapshot serves more than one request
+   */
+  private ValidationRulesSnapshot(SortedMap<String, EncodedClass> classes, ConstraintsJsonWriter writer,
+    boolean cached) {
+    this.classes = classes;
+    // same member order as the document written for ConstraintParser#parseConstraints()
+    this.members = Collections.unmodifiableMap(new LinkedHashMap<>(ConstraintParser.byTypeName(classes,
+      EncodedClass::getTypeName, EncodedClass::getMember)));
+    this.writer = writer;
+    this.cached = cached;
+    this.utf8 = writer.assemble(members.values());
+    this.builtAt = System.currentTimeMillis();
+  }
+
+  /**
+   * Encodes the parsed classes and builds the document from them.
+   *
+   * @param parsedClasses parsed classes per fully qualified class name as returned by {@link
+   *                      ConstraintParser#parseClasses()}
+   * @param writer        writer used to encode the constraints
+   * @param cached        whether the snapshot serves more than one request, it is then compressed at the best level
+   * @return snapshot of the validation rules document
+   */
+  static ValidationRulesSnapshot of(SortedMap<String, ConstraintParser.ParsedClass> parsedClasses,
+    ConstraintsJsonWriter writer, boolean cached) {
+    SortedMap<String, EncodedClass> classes = new TreeMap<>();
+    parsedClasses.forEach((className, parsedClass) -> classes.put(className, encode(parsedClass, writer)));
+    return new ValidationRulesSnapshot(classes, writer, cached);
+  }
+
+  /**
+   * Builds a new snapshot in which the passed classes are replaced. Only these classes are encoded, the members of
+   * all other classes are taken over from this snapshot. The resulting document is the same as if all classes had
+   * been parsed again.
+   *
+   * @param changedClasses parsed classes per fully qualified class name, empty for classes which no longer exist or
+   *                       no longer have constraints
+   * @return patched snapshot
+   */
+  ValidationRulesSnapshot patch(Map<String, Optional<ConstraintParser.ParsedClass>> changedClasses) {
+    SortedMap<String, EncodedClass> patchedClasses = new TreeMap<>(classes);
+    changedClasses.forEach((className, parsedClass) -> {
+      if (parsedClass.isPresent()) {
+        patchedClasses.put(className, encode(parsedClass.get(), writer));
+      } else {
+        patchedClasses.remove(className);
+      }
+    });
+    return new ValidationRulesSnapshot(patchedClasses, writer, cached);
+  }
+
+  /**
+   * Returns the JSON document in the requested content coding. The array is shared between all callers and must not
+   * be modified.
+   *
+   * @param encoding content coding
+   * @return UTF-8 encoded JSON document, compressed as requested
+   */
+  byte[] getJson(ContentEncoding encoding) {
+    return encodedJson.computeIfAbsent(encoding, key -> key.encode(utf8, cached ? Deflater.BEST_COMPRESSION :
+      Deflater.DEFAULT_COMPRESSION));
+  }
+
+  /**
+   * @param encoding content coding
+   * @return strong entity tag (including the double quotes) derived from the content of the JSON document and the
+   * content coding
+   */
+  String getEtag(ContentEncoding encoding) {
+    // strong entity tags must differ between content codings, RFC 7232 section 2.3.3
+    String suffix = encoding == ContentEncoding.IDENTITY ? "" : "-" + encoding;
+    return "\"" + getHash() + suffix + "\"";
+  }
+
+  /**
+   * Assembles a JSON document which contains only the requested types. Unknown type names are ignored.
+   *
+   * @param typeNames names of the types to include, in the order in which they should appear in the document
+   * @return UTF-8 encoded JSON document (identity content coding)
+   */
+  byte[] getJsonForTypes(Collection<String> typeNames) {
+    List<byte[]> selectedMembers = new ArrayList<>(typeNames.size());
+    for (String typeName : typeNames) {
+      byte[] member = members.get(typeName);
+      if (member != null) {
+        selectedMembers.add(member);
+      }
+    }
+    return writer.assemble(selectedMembers);
+  }
+
+  /**
+   * @param typeNames names of the requested types
+   * @return strong entity tag (including the double quotes) of the document returned by {@link
+   * #getJsonForTypes(Collection)} for the same type names, derived from the hash of the full document and the type
+   * names
+   */
+  String getEtagForTypes(Collection<String> typeNames) {
+    Hasher hasher = Hashing.sha256().newHasher().putString(getHash(), StandardCharsets.UTF_8);
+    for (String typeName : typeNames) {
+      // length prefixed so that different lists of names never feed the same input
+      hasher.putInt(typeName.length()).putString(typeName, StandardCharsets.UTF_8);
+    }
+    return "\"types-" + hasher.hash() + "\"";
+  }
+
+  /**
+   * @return time at which this snapshot was built, in milliseconds since the epoch
+   */
+  long getBuiltAt() {
+    return builtAt;
+  }
+
+  private String getHash() {
+    String result = hash;
+    if (result == null) {
+      // computed at most a few times if requested concurrently, the result is always the same
+      result = Hashing.sha256().hashBytes(utf8).toString();
+      hash = result;
+    }
+    return result;
+  }
+
+  private static EncodedClass encode(ConstraintParser.ParsedClass parsedClass, ConstraintsJsonWriter writer) {
+    return new EncodedClass(parsedClass.getTypeName(), writer.writeMemberAsBytes(parsedClass.getTypeName(),
+      parsedClass.getConstraints()));
+  }
+
+  /**
+   * Document member of a single class.
+   */
+  private static final class EncodedClass {
+    @Getter
+    private final String typeName;
+    @Getter
+    private final byte[] member;
+
+    private EncodedClass(String typeName, byte[] member) {
+      this.typeName = typeName;
+      this.member = member;
+    }
+  }
+}
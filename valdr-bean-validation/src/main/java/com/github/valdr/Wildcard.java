@@ -0,0 +1,48 @@
+package com.github.valdr;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Simple name pattern in which {@code *} matches any characters, e.g. {@code *Dto} or {@code internal*}. The pattern
+ * is split at the wildcards once, matching does not allocate.
+ */
+final class Wildcard {
+  /**
+   * The wildcard character.
+   */
+  static final String WILDCARD = "*";
+
+  private final String[] parts;
+
+  /**
+   * Constructor.
+   *
+   * @param pattern name pattern
+   */
+  Wildcard(String pattern) {
+    this.parts = StringUtils.splitPreserveAllTokens(pattern, WILDCARD);
+  }
+
+  /**
+   * @param name name to match
+   * @return whether the whole name matches the pattern
+   */
+  boolean matches(String name) {
+    if (parts.length == 1) {
+      return parts[0].equals(name);
+    }
+    if (!name.startsWith(parts[0])) {
+      return false;
+    }
+    int position = parts[0].length();
+    for (int i = 1; i < parts.length - 1; i++) {
+      int found = name.indexOf(parts[i], position);
+      if (found < 0) {
+        return false;
+      }
+      position = found + parts[i].length();
+    }
+    String last = parts[parts.length - 1];
+    return name.length() - last.length() >= position && name.endsWith(last);
+  }
+}
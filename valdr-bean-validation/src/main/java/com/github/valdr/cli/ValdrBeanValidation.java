@@ -10,13 +10,16 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Command line client to print the Bean Validation JSON model to system out or a defined output file. Usage is as
@@ -122,15 +125,31 @@ public final class ValdrBeanValidation {
   }
 
   private static void output(ConstraintParser parser, String outputFile) throws IOException {
-    String output = parser.parse();
     if (StringUtils.isEmpty(outputFile)) {
-      System.out.println(output);
+      parser.parse(System.out);
+      System.out.println();
     } else {
-      File file = new File(outputFile);
+      File file = new File(outputFile).getAbsoluteFile();
       file.getParentFile().mkdirs();
-      try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "utf-8")) {
-        writer.write(output);
+      // written next to the output file and moved into place once complete, a failing run leaves a previous output
+      // file intact
+      Path temporaryFile = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+      try {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+          parser.parse(outputStream);
+        }
+        moveIntoPlace(temporaryFile, file.toPath());
+      } finally {
+        Files.deleteIfExists(temporaryFile);
       }
     }
   }
+
+  private static void moveIntoPlace(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
 }
@@ -0,0 +1,201 @@
+package com.github.valdr.processor;
+
+import com.github.valdr.ClasspathScanner;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>Annotation processor which records at compile time the classes that are candidates for the {@link
+ * com.github.valdr.ConstraintParser}: classes with fields carrying constraint annotations, either declared by the class
+ * itself or inherited from one of its superclasses. The binary class names are written to the resource {@link
+ * ClasspathScanner#INDEX_RESOURCE}, the {@link ClasspathScanner} then loads the listed classes instead of walking the
+ * classpath.
+ * <p>The processor is not registered as a service and hence must be enabled explicitly, e.g. through the {@code
+ * annotationProcessors} (or {@code -processor}) compiler option. Constraint annotations are the ones in the packages
+ * {@code jakarta.validation.constraints} and {@code org.hibernate.validator.constraints}, annotations meta-annotated
+ * with {@code @jakarta.validation.Constraint} and the ones listed (fully qualified, comma-separated) in the processor
+ * option {@code valdr.customAnnotationClasses}. The latter should match the {@code customAnnotationClasses} of the
+ * valdr Bean Validation configuration if they aren't Bean Validation constraints.
+ * <p>Entries of an existing index are retained for classes not compiled in the current run so that incremental
+ * compilation does not truncate the index.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(ConstraintIndexProcessor.CUSTOM_ANNOTATION_CLASSES_OPTION)
+public class ConstraintIndexProcessor extends AbstractProcessor {
+  /**
+   * Name of the processor option which lists custom annotation classes.
+   */
+  public static final String CUSTOM_ANNOTATION_CLASSES_OPTION = "valdr.customAnnotationClasses";
+
+  private static final Set<String> CONSTRAINT_PACKAGES = new HashSet<>(Arrays.asList(
+    "jakarta.validation.constraints", "org.hibernate.validator.constraints"));
+  private static final String CONSTRAINT_META_ANNOTATION = "jakarta.validation.Constraint";
+
+  private final Set<String> customAnnotationClasses = new HashSet<>();
+  private final Set<String> candidates = new TreeSet<>();
+  private final Set<String> processed = new HashSet<>();
+  private final Map<String, Boolean> relevantAnnotations = new HashMap<>();
+  private final Map<String, Boolean> classesWithConstraints = new HashMap<>();
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    String option = processingEnv.getOptions().get(CUSTOM_ANNOTATION_CLASSES_OPTION);
+    if (option != null) {
+      for (String className : option.split(",")) {
+        if (!className.trim().isEmpty()) {
+          customAnnotationClasses.add(className.trim());
+        }
+      }
+    }
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeIndex();
+    } else {
+      for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+        processType(type);
+      }
+    }
+    return false;
+  }
+
+  private void processType(TypeElement type) {
+    if (type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.ENUM) {
+      String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+      processed.add(className);
+      if (hasConstraints(type)) {
+        candidates.add(className);
+      }
+    }
+    for (TypeElement nestedType : ElementFilter.typesIn(type.getEnclosedElements())) {
+      processType(nestedType);
+    }
+  }
+
+  /**
+   * @return whether the type or one of its superclasses declares a field with a constraint annotation
+   */
+  private boolean hasConstraints(TypeElement type) {
+    String className = type.getQualifiedName().toString();
+    Boolean result = classesWithConstraints.get(className);
+    if (result == null) {
+      result = declaresConstrainedField(type) || hasConstraints(type.getSuperclass());
+      classesWithConstraints.put(className, result);
+    }
+    return result;
+  }
+
+  private boolean hasConstraints(TypeMirror superclass) {
+    return superclass.getKind() == TypeKind.DECLARED && hasConstraints((TypeElement) ((DeclaredType) superclass)
+      .asElement());
+  }
+
+  private boolean declaresConstrainedField(TypeElement type) {
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+        if (isRelevant((TypeElement) annotation.getAnnotationType().asElement())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isRelevant(TypeElement annotationType) {
+    String annotationName = annotationType.getQualifiedName().toString();
+    return relevantAnnotations.computeIfAbsent(annotationName, name -> {
+      String packageName = processingEnv.getElementUtils().getPackageOf(annotationType).getQualifiedName().toString();
+      return CONSTRAINT_PACKAGES.contains(packageName) || customAnnotationClasses.contains(name) ||
+        isMetaAnnotatedAsConstraint(annotationType);
+    });
+  }
+
+  private boolean isMetaAnnotatedAsConstraint(TypeElement annotationType) {
+    for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+      Element metaAnnotationType = metaAnnotation.getAnnotationType().asElement();
+      if (CONSTRAINT_META_ANNOTATION.equals(((TypeElement) metaAnnotationType).getQualifiedName().toString())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeIndex() {
+    Filer filer = processingEnv.getFiler();
+    Set<String> index = new TreeSet<>(candidates);
+    for (String className : readExistingIndex(filer)) {
+      // entries of classes which were deleted or renamed since the previous compilation are dropped
+      if (!processed.contains(className) && exists(className)) {
+        index.add(className);
+      }
+    }
+    try {
+      FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", ClasspathScanner.INDEX_RESOURCE);
+      try (Writer writer = resource.openWriter()) {
+        for (String className : index) {
+          writer.write(className);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write the valdr Bean Validation " +
+        "index '" + ClasspathScanner.INDEX_RESOURCE + "': " + e.getMessage());
+    }
+  }
+
+  private boolean exists(String binaryName) {
+    // the index holds binary names, type elements are looked up by canonical name
+    return processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+  }
+
+  private Set<String> readExistingIndex(Filer filer) {
+    Set<String> classNames = new TreeSet<>();
+    try {
+      FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", ClasspathScanner.INDEX_RESOURCE);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(),
+        StandardCharsets.UTF_8))) {
+        reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(classNames::add);
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // no index from a previous compilation
+    }
+    return classNames;
+  }
+}
@@ -0,0 +1,295 @@
+package com.github.valdr.serializer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.valdr.ClassConstraints;
+import com.github.valdr.FieldConstraints;
+import com.github.valdr.MinimalObjectMap;
+import com.github.valdr.SharedConstraintAttributes;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>Writes the constraint model (type name to {@link ClassConstraints}) as JSON document using {@link JsonGenerator}
+ * primitives directly rather than going through Jackson databind. Attribute values of the common types (strings,
+ * numbers, booleans, string arrays) are written without any serializer lookup; only values of other types (e.g.
+ * enums) are handed to databind.
+ * <p>The output is identical to serializing the model with an {@link ObjectMapper} that has a
+ * {@link MinimalMapSerializer} registered. Instances are immutable and thread-safe.
+ * <p>Besides complete documents the writer produces pre-encoded document members (type name and its constraints) which
+ * can be {@link #assemble(Collection) assembled} into a document containing any subset of the types by mere byte
+ * concatenation. Assembling all members of a model yields the same bytes as {@link #writeAsBytes(Map)}.
+ * <p>{@link SharedConstraintAttributes} are encoded once and then copied into the output as raw JSON.
+ */
+public class ConstraintsJsonWriter {
+  private static final byte[] PRETTY_DOCUMENT_START = ("{" + DefaultIndenter.SYS_LF + "  ")
+    .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PRETTY_MEMBER_SEPARATOR = ("," + DefaultIndenter.SYS_LF + "  ")
+    .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PRETTY_DOCUMENT_END = (DefaultIndenter.SYS_LF + "}").getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PRETTY_EMPTY_DOCUMENT = "{ }".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PRETTY_NAME_VALUE_SEPARATOR = " : ".getBytes(StandardCharsets.UTF_8);
+  /**
+   * Nesting of the objects holding constraint attributes: document, type, field.
+   */
+  private static final int ATTRIBUTES_NESTING = 3;
+
+  private final JsonFactory jsonFactory;
+  private final boolean prettyPrint;
+  private final Function<MinimalObjectMap, String> attributesEncoder = this::writeAttributesAsString;
+
+  /**
+   * Constructor.
+   *
+   * @param prettyPrint whether to pretty print the JSON document (like {@code withDefaultPrettyPrinter()}) or to
+   *                    minify it
+   */
+  public ConstraintsJsonWriter(boolean prettyPrint) {
+    // the mapper acts as codec for attribute values of types not handled by this writer
+    this.jsonFactory = new ObjectMapper().getFactory();
+    this.prettyPrint = prettyPrint;
+  }
+
+  /**
+   * Writes the model UTF-8 encoded to the passed stream. The stream is flushed but not closed.
+   *
+   * @param model        type name to constraints
+   * @param outputStream stream to write to
+   * @throws IOException if writing to the stream fails
+   */
+  public void write(Map<String, ClassConstraints> model, OutputStream outputStream) throws IOException {
+    try (JsonGenerator generator = configure(jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8))) {
+      writeModel(model, generator);
+    }
+  }
+
+  /**
+   * @param model type name to constraints
+   * @return UTF-8 encoded JSON document
+   */
+  @SneakyThrows(IOException.class)
+  public byte[] writeAsBytes(Map<String, ClassConstraints> model) {
+    try (ByteArrayBuilder result = new ByteArrayBuilder()) {
+      write(model, result);
+      return result.toByteArray();
+    }
+  }
+
+  /**
+   * @param model type name to constraints
+   * @return JSON document
+   */
+  @SneakyThrows(IOException.class)
+  public String writeAsString(Map<String, ClassConstraints> model) {
+    StringWriter result = new StringWriter();
+    try (JsonGenerator generator = configure(jsonFactory.createGenerator(result))) {
+      writeModel(model, generator);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Encodes the members of the JSON document for the passed model, see {@link #writeMemberAsBytes(String,
+   * ClassConstraints)}.
+   *
+   * @param model type name to constraints
+   * @return type name to UTF-8 encoded member, in the iteration order of the model
+   */
+  public Map<String, byte[]> writeMembersAsBytes(Map<String, ClassConstraints> model) {
+    Map<String, byte[]> members = new LinkedHashMap<>();
+    for (Map.Entry<String, ClassConstraints> entry : model.entrySet()) {
+      members.put(entry.getKey(), writeMemberAsBytes(entry.getKey(), entry.getValue()));
+    }
+    return members;
+  }
+
+  /**
+   * Encodes a single member of the JSON document - the type name and its constraints - exactly as it appears within
+   * a complete document.
+   *
+   * @param typeName         name of the type
+   * @param classConstraints constraints of the type
+   * @return UTF-8 encoded member
+   */
+  @SneakyThrows(IOException.class)
+  public byte[] writeMemberAsBytes(String typeName, ClassConstraints classConstraints) {
+    try (ByteArrayBuilder result = new ByteArrayBuilder()) {
+      result.write('"');
+      result.write(JsonStringEncoder.getInstance().quoteAsUTF8(typeName));
+      result.write('"');
+      if (prettyPrint) {
+        result.write(PRETTY_NAME_VALUE_SEPARATOR);
+      } else {
+        result.write(':');
+      }
+      try (JsonGenerator generator = jsonFactory.createGenerator(result, JsonEncoding.UTF8)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (prettyPrint) {
+          generator.setPrettyPrinter(new NestedPrettyPrinter(1));
+        }
+        writeClassConstraints(classConstraints, generator);
+      }
+      return result.toByteArray();
+    }
+  }
+
+  /**
+   * Joins members produced by {@link #writeMemberAsBytes(String, ClassConstraints)} into a JSON document.
+   *
+   * @param members UTF-8 encoded members, in the order in which they appear in the document
+   * @return UTF-8 encoded JSON document
+   */
+  public byte[] assemble(Collection<byte[]> members) {
+    if (members.isEmpty()) {
+      return prettyPrint ? PRETTY_EMPTY_DOCUMENT.clone() : new byte[]{'{', '}'};
+    }
+    byte[] start = prettyPrint ? PRETTY_DOCUMENT_START : new byte[]{'{'};
+    byte[] separator = prettyPrint ? PRETTY_MEMBER_SEPARATOR : new byte[]{','};
+    byte[] end = prettyPrint ? PRETTY_DOCUMENT_END : new byte[]{'}'};
+
+    int length = start.length + (members.size() - 1) * separator.length + end.length;
+    for (byte[] member : members) {
+      length += member.length;
+    }
+    byte[] document = new byte[length];
+    int position = append(start, document, 0);
+    boolean first = true;
+    for (byte[] member : members) {
+      if (!first) {
+        position = append(separator, document, position);
+      }
+      position = append(member, document, position);
+      first = false;
+    }
+    append(end, document, position);
+    return document;
+  }
+
+  private int append(byte[] source, byte[] target, int position) {
+    System.arraycopy(source, 0, target, position, source.length);
+    return position + source.length;
+  }
+
+  private JsonGenerator configure(JsonGenerator generator) {
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    if (prettyPrint) {
+      generator.setPrettyPrinter(new DefaultPrettyPrinter());
+    }
+    return generator;
+  }
+
+  private void writeModel(Map<String, ClassConstraints> model, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    for (Map.Entry<String, ClassConstraints> entry : model.entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      writeClassConstraints(entry.getValue(), generator);
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeClassConstraints(ClassConstraints classConstraints, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    for (Map.Entry<String, FieldConstraints> entry : classConstraints.entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      writeFieldConstraints(entry.getValue(), generator);
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeFieldConstraints(FieldConstraints fieldConstraints, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    for (Map.Entry<String, MinimalObjectMap> entry : fieldConstraints.entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      if (entry.getValue() instanceof SharedConstraintAttributes) {
+        generator.writeRawValue(((SharedConstraintAttributes) entry.getValue()).getJson(prettyPrint,
+          attributesEncoder));
+      } else {
+        writeAttributes(entry.getValue(), generator);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * Encodes attributes as they appear nested within a complete document.
+   */
+  @SneakyThrows(IOException.class)
+  private String writeAttributesAsString(MinimalObjectMap attributes) {
+    StringWriter result = new StringWriter();
+    try (JsonGenerator generator = jsonFactory.createGenerator(result)) {
+      if (prettyPrint) {
+        generator.setPrettyPrinter(new NestedPrettyPrinter(ATTRIBUTES_NESTING));
+      }
+      writeAttributes(attributes, generator);
+    }
+    return result.toString();
+  }
+
+  private void writeAttributes(MinimalObjectMap attributes, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      writeValue(entry.getValue(), generator);
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeValue(Object value, JsonGenerator generator) throws IOException {
+    if (value instanceof String) {
+      generator.writeString((String) value);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      generator.writeNumber(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      generator.writeNumber((Long) value);
+    } else if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    } else if (value instanceof Double) {
+      generator.writeNumber((Double) value);
+    } else if (value instanceof Float) {
+      generator.writeNumber((Float) value);
+    } else if (value instanceof String[]) {
+      String[] strings = (String[]) value;
+      generator.writeStartArray(strings, strings.length);
+      for (String string : strings) {
+        generator.writeString(string);
+      }
+      generator.writeEndArray();
+    } else if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeObject(value);
+    }
+  }
+
+  /**
+   * Pretty printer which indents as if the written value was nested in the given number of objects of the document.
+   */
+  private static final class NestedPrettyPrinter extends DefaultPrettyPrinter {
+    NestedPrettyPrinter(int nesting) {
+      _nesting = nesting;
+    }
+
+    NestedPrettyPrinter(NestedPrettyPrinter base) {
+      super(base);
+    }
+
+    @Override
+    public DefaultPrettyPrinter createInstance() {
+      return new NestedPrettyPrinter(this);
+    }
+  }
+}
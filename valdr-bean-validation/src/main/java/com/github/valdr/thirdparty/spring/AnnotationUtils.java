@@ -20,10 +20,13 @@ package com.github.valdr.thirdparty.spring;
  */
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
  * General utility methods for working with annotations, handling bridge methods (which the compiler
@@ -53,7 +56,31 @@ public abstract class AnnotationUtils {
   /** The attribute name for annotations with a single element */
   static final String VALUE = "value";
 
-  private static final Map<Class<?>, Boolean> annotatedInterfaceCache = new WeakHashMap<Class<?>, Boolean>();
+  /**
+   * Whether an interface has methods with annotations. A {@link ClassValue} is read without locking and does not keep
+   * the interface (or its class loader) from being unloaded.
+   */
+  private static final ClassValue<Boolean> annotatedInterfaceCache = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> iface) {
+      for (Method ifcMethod : iface.getMethods()) {
+        if (ifcMethod.getAnnotations().length > 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+  };
+
+  /**
+   * Attribute methods and default values per annotation type, see {@link #annotatedInterfaceCache}.
+   */
+  private static final ClassValue<AttributeMethods> attributeMethodsCache = new ClassValue<AttributeMethods>() {
+    @Override
+    protected AttributeMethods computeValue(Class<?> annotationType) {
+      return new AttributeMethods(annotationType);
+    }
+  };
 
 
   /**
@@ -133,21 +160,7 @@ public abstract class AnnotationUtils {
   }
 
   private static boolean isInterfaceWithAnnotatedMethods(Class<?> iface) {
-    synchronized (annotatedInterfaceCache) {
-      Boolean flag = annotatedInterfaceCache.get(iface);
-      if (flag != null) {
-        return flag;
-      }
-      boolean found = false;
-      for (Method ifcMethod : iface.getMethods()) {
-        if (ifcMethod.getAnnotations().length > 0) {
-          found = true;
-          break;
-        }
-      }
-      annotatedInterfaceCache.put(iface, found);
-      return found;
-    }
+    return annotatedInterfaceCache.get(iface);
   }
 
   /**
@@ -359,45 +372,42 @@ public abstract class AnnotationUtils {
                                                              boolean nestedAnnotationsAsMap) {
 
     AnnotationAttributes attrs = new AnnotationAttributes();
-    Method[] methods = annotation.annotationType().getDeclaredMethods();
-    for (Method method : methods) {
-      if (method.getParameterTypes().length == 0 && method.getReturnType() != void.class) {
-        try {
-          Object value = method.invoke(annotation);
-          if (classValuesAsString) {
-            if (value instanceof Class) {
-              value = ((Class<?>) value).getName();
-            }
-            else if (value instanceof Class[]) {
-              Class<?>[] clazzArray = (Class[]) value;
-              String[] newValue = new String[clazzArray.length];
-              for (int i = 0; i < clazzArray.length; i++) {
-                newValue[i] = clazzArray[i].getName();
-              }
-              value = newValue;
-            }
-          }
-          if (nestedAnnotationsAsMap && value instanceof Annotation) {
-            attrs.put(method.getName(),
-              getAnnotationAttributes((Annotation) value, classValuesAsString, nestedAnnotationsAsMap));
+    for (Method method : attributeMethodsCache.get(annotation.annotationType()).methods) {
+      try {
+        Object value = method.invoke(annotation);
+        if (classValuesAsString) {
+          if (value instanceof Class) {
+            value = ((Class<?>) value).getName();
           }
-          else if (nestedAnnotationsAsMap && value instanceof Annotation[]) {
-            Annotation[] realAnnotations = (Annotation[]) value;
-            AnnotationAttributes[] mappedAnnotations = new AnnotationAttributes[realAnnotations.length];
-            for (int i = 0; i < realAnnotations.length; i++) {
-              mappedAnnotations[i] = getAnnotationAttributes(realAnnotations[i], classValuesAsString,
-                nestedAnnotationsAsMap);
+          else if (value instanceof Class[]) {
+            Class<?>[] clazzArray = (Class[]) value;
+            String[] newValue = new String[clazzArray.length];
+            for (int i = 0; i < clazzArray.length; i++) {
+              newValue[i] = clazzArray[i].getName();
             }
-            attrs.put(method.getName(), mappedAnnotations);
+            value = newValue;
           }
-          else {
-            attrs.put(method.getName(), value);
+        }
+        if (nestedAnnotationsAsMap && value instanceof Annotation) {
+          attrs.put(method.getName(),
+            getAnnotationAttributes((Annotation) value, classValuesAsString, nestedAnnotationsAsMap));
+        }
+        else if (nestedAnnotationsAsMap && value instanceof Annotation[]) {
+          Annotation[] realAnnotations = (Annotation[]) value;
+          AnnotationAttributes[] mappedAnnotations = new AnnotationAttributes[realAnnotations.length];
+          for (int i = 0; i < realAnnotations.length; i++) {
+            mappedAnnotations[i] = getAnnotationAttributes(realAnnotations[i], classValuesAsString,
+              nestedAnnotationsAsMap);
           }
+          attrs.put(method.getName(), mappedAnnotations);
         }
-        catch (Exception ex) {
-          throw new IllegalStateException("Could not obtain annotation attribute values", ex);
+        else {
+          attrs.put(method.getName(), value);
         }
       }
+      catch (Exception ex) {
+        throw new IllegalStateException("Could not obtain annotation attribute values", ex);
+      }
     }
     return attrs;
   }
@@ -421,8 +431,11 @@ public abstract class AnnotationUtils {
    * @see #getValue(java.lang.annotation.Annotation)
    */
   public static Object getValue(Annotation annotation, String attributeName) {
+    Method method = attributeMethodsCache.get(annotation.annotationType()).methodsByName.get(attributeName);
+    if (method == null) {
+      return null;
+    }
     try {
-      Method method = annotation.annotationType().getDeclaredMethod(attributeName, new Class[0]);
       return method.invoke(annotation);
     }
     catch (Exception ex) {
@@ -471,12 +484,53 @@ public abstract class AnnotationUtils {
    * @see #getDefaultValue(java.lang.annotation.Annotation, String)
    */
   public static Object getDefaultValue(Class<? extends Annotation> annotationType, String attributeName) {
-    try {
-      Method method = annotationType.getDeclaredMethod(attributeName, new Class[0]);
-      return method.getDefaultValue();
+    // arrays are copied as Method.getDefaultValue() returns a new array on every invocation
+    return copyIfArray(attributeMethodsCache.get(annotationType).defaultValues.get(attributeName));
+  }
+
+  private static Object copyIfArray(Object value) {
+    if (value == null || !value.getClass().isArray()) {
+      return value;
     }
-    catch (Exception ex) {
-      return null;
+    int length = Array.getLength(value);
+    Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+    System.arraycopy(value, 0, copy, 0, length);
+    return copy;
+  }
+
+  /**
+   * The attribute methods (declared methods without parameters and with a return value) of an annotation type and
+   * their default values.
+   */
+  private static final class AttributeMethods {
+    private final List<Method> methods;
+    private final Map<String, Method> methodsByName;
+    private final Map<String, Object> defaultValues;
+
+    private AttributeMethods(Class<?> annotationType) {
+      List<Method> attributeMethods = new ArrayList<Method>();
+      Map<String, Method> attributeMethodsByName = new HashMap<String, Method>();
+      Map<String, Object> attributeDefaultValues = new HashMap<String, Object>();
+      for (Method method : annotationType.getDeclaredMethods()) {
+        if (method.getParameterTypes().length == 0 && method.getReturnType() != void.class) {
+          attributeMethods.add(method);
+          attributeMethodsByName.put(method.getName(), method);
+          attributeDefaultValues.put(method.getName(), defaultValueOf(method));
+        }
+      }
+      this.methods = Collections.unmodifiableList(attributeMethods);
+      this.methodsByName = Collections.unmodifiableMap(attributeMethodsByName);
+      this.defaultValues = Collections.unmodifiableMap(attributeDefaultValues);
+    }
+
+    private static Object defaultValueOf(Method method) {
+      try {
+        return method.getDefaultValue();
+      }
+      catch (RuntimeException ex) {
+        // e.g. a class referenced by the default value is not present
+        return null;
+      }
     }
   }
 
@@ -1,12 +1,16 @@
 package com.github.valdr;
 
 import com.github.valdr.model.a.TestModelWithASingleAnnotatedMember;
+import com.github.valdr.model.d.SubClassWithNoValidatedMembers;
+import com.github.valdr.model.d.SuperClassWithValidatedMember;
+import com.github.valdr.model.e.TestModelClassWithLotsOfIrrelevantAnnotations;
 import com.google.common.collect.Lists;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class AnnotatedClassTest {
 
@@ -24,4 +28,52 @@ public class AnnotatedClassTest {
     // then
     assertThat(classConstraints.entrySet(), is(empty()));
   }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReturnConstrainedFieldsOfSuperclassOnly() {
+    // given
+    AnnotatedClass annotatedClass = new AnnotatedClass(SubClassWithNoValidatedMembers.class,
+      Lists.newArrayList(), BuiltInConstraint.getAllBeanValidationAnnotations());
+    // when
+    ClassConstraints classConstraints = annotatedClass.extractValidationRules();
+    // then
+    assertThat(classConstraints.size(), is(1));
+    assertThat(classConstraints.entrySet().iterator().next().getKey(), is("notNullString"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldIgnoreIrrelevantAnnotations() {
+    // given
+    AnnotatedClass annotatedClass = new AnnotatedClass(TestModelClassWithLotsOfIrrelevantAnnotations.class,
+      Lists.newArrayList(), BuiltInConstraint.getAllBeanValidationAnnotations());
+    // when
+    ClassConstraints classConstraints = annotatedClass.extractValidationRules();
+    // then
+    assertThat(classConstraints.entrySet(), is(empty()));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldShareConstraintsOfSuperclassWithinPass() {
+    // given
+    DeclaredConstraints declaredConstraints = new DeclaredConstraints(new FieldExclusions(Lists.newArrayList()),
+      new ConstraintHandlers(BuiltInConstraint.getAllBeanValidationAnnotations()));
+    // when
+    ClassConstraints superClassConstraints = new AnnotatedClass(SuperClassWithValidatedMember.class,
+      declaredConstraints).extractValidationRules();
+    ClassConstraints subClassConstraints = new AnnotatedClass(SubClassWithNoValidatedMembers.class,
+      declaredConstraints).extractValidationRules();
+    // then
+    assertThat(subClassConstraints.size(), is(1));
+    assertThat(subClassConstraints.entrySet().iterator().next().getValue(),
+      sameInstance(superClassConstraints.entrySet().iterator().next().getValue()));
+  }
 }
@@ -0,0 +1,58 @@
+package com.github.valdr;
+
+import com.github.valdr.model.h.TestModelWithPatterns;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.constraints.Pattern;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests AnnotationAccessor.
+ */
+public class AnnotationAccessorTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldCopyAttributesWithoutGroupsAndPayload() throws NoSuchFieldException {
+    // given
+    Pattern annotation = TestModelWithPatterns.class.getDeclaredField("addSlashPrefixSuffix")
+      .getAnnotation(Pattern.class);
+    AnnotationAccessor accessor = new AnnotationAccessor(Pattern.class);
+    Map<String, Object> attributes = new HashMap<>();
+    // when
+    accessor.copyAttributes(accessor.readValues(annotation), attributes);
+    // then
+    assertThat(attributes.get("regexp"), is("abc"));
+    assertThat(attributes.get("message"), is("{jakarta.validation.constraints.Pattern.message}"));
+    assertThat(attributes, hasKey("flags"));
+    assertThat(attributes, not(hasKey("groups")));
+    assertThat(attributes, not(hasKey("payload")));
+    assertThat(accessor.size(), is(3));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReadSameAttributesAsConstraintAttributes() throws NoSuchFieldException {
+    // given
+    Pattern annotation = TestModelWithPatterns.class.getDeclaredField("addSlashPrefixSuffix")
+      .getAnnotation(Pattern.class);
+    AnnotationAccessor accessor = new AnnotationAccessor(Pattern.class);
+    Map<String, Object> expected = new HashMap<>();
+    new ConstraintAttributes(annotation).entrySet().forEach(entry -> expected.put(entry.getKey(), entry.getValue()));
+    Map<String, Object> read = new HashMap<>();
+    // when
+    accessor.copyAttributes(accessor.readValues(annotation), read);
+    // then
+    assertThat(read, is(expected));
+  }
+}
@@ -0,0 +1,102 @@
+package com.github.valdr;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests ClassFileWatcher.
+ */
+public class ClassFileWatcherTest {
+  @TempDir
+  Path classesDirectory;
+  private final BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+  private final BlockingQueue<Set<String>> removals = new LinkedBlockingQueue<>();
+  private ClassFileWatcher watcher;
+
+  @AfterEach
+  public void closeWatcher() throws IOException {
+    if (watcher != null) {
+      watcher.close();
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReportChangedClassWithSubclasses() throws IOException, InterruptedException {
+    // given
+    compile("sample/Person.java", "package sample; public class Person { String name; }");
+    compile("sample/Employee.java", "package sample; public class Employee extends Person { }");
+    compile("sample/Address.java", "package sample; public class Address { String street; }");
+    startWatcher();
+
+    // when
+    compile("sample/Person.java", "package sample; public class Person { String firstName; }");
+
+    // then
+    Set<String> changedClassNames = changes.poll(10, TimeUnit.SECONDS);
+    assertThat(changedClassNames, notNullValue());
+    assertThat(changedClassNames, containsInAnyOrder("sample.Employee", "sample.Person"));
+    assertThat(removals.poll(), empty());
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReportRemovedClass() throws IOException, InterruptedException {
+    // given
+    compile("sample/Person.java", "package sample; public class Person { String name; }");
+    compile("sample/Employee.java", "package sample; public class Employee extends Person { }");
+    startWatcher();
+
+    // when
+    Files.delete(classesDirectory.resolve("sample/Employee.class"));
+
+    // then
+    Set<String> changedClassNames = changes.poll(10, TimeUnit.SECONDS);
+    assertThat(changedClassNames, notNullValue());
+    assertThat(changedClassNames, empty());
+    assertThat(removals.poll(), containsInAnyOrder("sample.Employee"));
+  }
+
+  private void startWatcher() throws IOException {
+    watcher = new ClassFileWatcher(Collections.singletonList(classesDirectory), Lists.newArrayList("sample"),
+      (changedClassNames, removedClassNames) -> {
+        removals.add(removedClassNames);
+        changes.add(changedClassNames);
+      }, 100);
+    watcher.start();
+  }
+
+  private void compile(String sourcePath, String source) throws IOException {
+    Path sourceFile = Files.createTempDirectory("valdr").resolve(sourcePath);
+    Files.createDirectories(sourceFile.getParent());
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int result = compiler.run(null, null, null, "-d", classesDirectory.toString(), "-classpath",
+      classesDirectory.toString(), sourceFile.toString());
+    assertThat(result, is(0));
+  }
+}
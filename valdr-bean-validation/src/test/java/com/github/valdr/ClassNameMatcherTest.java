@@ -0,0 +1,73 @@
+package com.github.valdr;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests ClassNameMatcher.
+ */
+public class ClassNameMatcherTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldMatchExactClassNames() {
+    // given
+    ClassNameMatcher matcher = new ClassNameMatcher(Lists.newArrayList("com.acme.Person", " com.acme.Outer$Inner "));
+    // when
+    // then
+    assertThat(matcher.matches("com.acme.Person"), is(true));
+    assertThat(matcher.matches("com.acme.Outer$Inner"), is(true));
+    assertThat(matcher.matches("com.acme.Persons"), is(false));
+    assertThat(matcher.matches("com.acme.Outer"), is(false));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldMatchWildcardWithinSingleSegment() {
+    // given
+    ClassNameMatcher matcher = new ClassNameMatcher(Lists.newArrayList("com.acme.*", "org.example.*Dto"));
+    // when
+    // then
+    assertThat(matcher.matches("com.acme.Person"), is(true));
+    assertThat(matcher.matches("com.acme.orders.Order"), is(false));
+    assertThat(matcher.matches("org.example.PersonDto"), is(true));
+    assertThat(matcher.matches("org.example.Dto"), is(true));
+    assertThat(matcher.matches("org.example.DtoFactory"), is(false));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldMatchAnyNumberOfSegments() {
+    // given
+    ClassNameMatcher matcher = new ClassNameMatcher(Lists.newArrayList("com.acme.**.dto.*"));
+    // when
+    // then
+    assertThat(matcher.matches("com.acme.dto.Person"), is(true));
+    assertThat(matcher.matches("com.acme.orders.dto.Order"), is(true));
+    assertThat(matcher.matches("com.acme.orders.internal.dto.Order"), is(true));
+    assertThat(matcher.matches("com.acme.orders.dto.internal.Order"), is(false));
+    assertThat(matcher.matches("org.acme.dto.Person"), is(false));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldBeEmptyWithoutEntries() {
+    // given
+    ClassNameMatcher matcher = new ClassNameMatcher(Lists.newArrayList("", " "));
+    // when
+    // then
+    assertThat(matcher.isEmpty(), is(true));
+    assertThat(matcher.matches("com.acme.Person"), is(false));
+  }
+}
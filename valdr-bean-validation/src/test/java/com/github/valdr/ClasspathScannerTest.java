@@ -1,6 +1,15 @@
 package com.github.valdr;
 
 import com.github.valdr.model.a.TestModelWithASingleAnnotatedMember;
+import com.github.valdr.model.b.TestModelWithCustomValidator;
+import com.github.valdr.model.c.TestModelWithASingleAnnotatedMemberWithCustomMessageKey;
+import com.github.valdr.model.d.SubClassWithNoValidatedMembers;
+import com.github.valdr.model.d.SuperClassWithValidatedMember;
+import com.github.valdr.model.f.TestModelWithEmailAnnotation;
+import com.github.valdr.model.g.TestModelWithHibernateUrlAnnotation;
+import com.github.valdr.model.h.TestModelWithPatterns;
+import com.github.valdr.model.validation.CustomValidation;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -8,11 +17,20 @@ import org.hamcrest.Matcher;
 import org.hamcrest.collection.IsEmptyCollection;
 import org.junit.jupiter.api.Test;
 
+import jakarta.persistence.Entity;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.validation.Validation;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.core.Is.is;
 
 /**
@@ -61,6 +79,74 @@ public class ClasspathScannerTest {
     assertThat(classesToParse.size(), is(10));
   }
 
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldExcludeClassesMatchingWildcardPattern() {
+    // given
+    ClasspathScanner classpathScanner = scannerFor(Lists.newArrayList("com.github.valdr.model"),
+      Lists.newArrayList("com.github.valdr.**.TestModelWithASingle*Member"));
+    // when
+    Set<Class<?>> classesToParse = classpathScanner.findClassesToParse();
+    // then
+    assertThat(classesToParse, notContains(TestModelWithASingleAnnotatedMember.class));
+    assertThat(classesToParse.size(), is(10));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldFindOnlyClassesWithRelevantAnnotationsIfConfigured() {
+    // given
+    ClasspathScanner classpathScanner = scannerFor(Lists.newArrayList("com.github.valdr.model"), emptyStringList(),
+      CustomValidation.class);
+    // when
+    Set<Class<?>> classesToParse = classpathScanner.findClassesToParse();
+    // then
+    assertThat(classesToParse, containsInAnyOrder(TestModelWithASingleAnnotatedMember.class,
+      TestModelWithCustomValidator.class, TestModelWithASingleAnnotatedMemberWithCustomMessageKey.class,
+      SuperClassWithValidatedMember.class, SubClassWithNoValidatedMembers.class, TestModelWithEmailAnnotation.class,
+      TestModelWithHibernateUrlAnnotation.class, TestModelWithPatterns.class));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldConsiderSuperclassesOutsideOfScannedClassesIfConfigured() {
+    // given
+    ClasspathScanner classpathScanner = scannerFor(Lists.newArrayList("com.github.valdr.model.d"),
+      Lists.newArrayList(SuperClassWithValidatedMember.class.getName()), CustomValidation.class);
+    // when
+    Set<Class<?>> classesToParse = classpathScanner.findClassesToParse();
+    // then
+    assertThat(classesToParse, containsInAnyOrder(SubClassWithNoValidatedMembers.class));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldFindSameClassesIfScanningRootsConcurrently() {
+    // given
+    ClasspathScanner sequentialScanner = new ClasspathScanner(optionsWithScanParallelism(1));
+    ClasspathScanner concurrentScanner = new ClasspathScanner(optionsWithScanParallelism(8));
+    // when
+    Set<Class<?>> classesToParse = concurrentScanner.findClassesToParse();
+    // then classes of several JARs are found
+    assertThat(classesToParse, hasItems(HttpServlet.class, Validation.class, Entity.class));
+    assertThat(classesToParse, is(sequentialScanner.findClassesToParse()));
+  }
+
+  private Options optionsWithScanParallelism(int scanParallelism) {
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList("jakarta"));
+    options.setScanParallelism(scanParallelism);
+    return options;
+  }
+
   private Matcher<? super Set<Class<?>>> notContains(final Class<?> testModelClass) {
     return new BaseMatcher() {
       @Override
@@ -80,6 +166,28 @@ public class ClasspathScannerTest {
     };
   }
 
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldLoadModelClassesAgainThroughReloadingClassLoader() throws IOException {
+    // given
+    ClasspathScanner classpathScanner = scannerFor(Lists.newArrayList("com.github.valdr.model"), emptyStringList(),
+      CustomValidation.class);
+    try (ReloadingClassLoader classLoader = classpathScanner.newReloadingClassLoader()) {
+      // when
+      Optional<Class<?>> model = classpathScanner.findClassToParse(TestModelWithCustomValidator.class.getName(),
+        classLoader);
+      Optional<Class<?>> annotation = classpathScanner.findClassToParse(CustomValidation.class.getName(), classLoader);
+      // then the model class is defined anew, the relevant annotation is shared with the application
+      assertThat(model.isPresent(), is(true));
+      assertThat(model.get() == TestModelWithCustomValidator.class, is(false));
+      assertThat(model.get().getName(), is(TestModelWithCustomValidator.class.getName()));
+      assertThat(model.get().getClassLoader(), is(classLoader));
+      assertThat(annotation.orElse(null) == CustomValidation.class, is(true));
+    }
+  }
+
   private ClasspathScanner scannerFor(List<String> modelPackages, List<String> excludedClasses) {
     Options options = new Options();
     options.setModelPackages(modelPackages);
@@ -87,6 +195,15 @@ public class ClasspathScannerTest {
     return new ClasspathScanner(options);
   }
 
+  private ClasspathScanner scannerFor(List<String> modelPackages, List<String> excludedClasses,
+    Class<? extends Annotation> customAnnotationClass) {
+    Options options = new Options();
+    options.setModelPackages(modelPackages);
+    options.setExcludedClasses(excludedClasses);
+    return new ClasspathScanner(options, Iterables.concat(BuiltInConstraint.getAllBeanValidationAnnotations(),
+      Collections.singletonList(customAnnotationClass)));
+  }
+
   private List<String> emptyStringList() {
     return Collections.emptyList();
   }
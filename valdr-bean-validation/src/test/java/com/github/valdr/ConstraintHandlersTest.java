@@ -0,0 +1,107 @@
+package com.github.valdr;
+
+import com.github.valdr.model.b.TestModelWithCustomValidator;
+import com.github.valdr.model.h.TestModelWithPatterns;
+import com.github.valdr.model.validation.CustomValidation;
+import com.google.common.collect.Iterables;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.constraints.Pattern;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests ConstraintHandlers.
+ */
+public class ConstraintHandlersTest {
+  private final ConstraintHandlers handlers = new ConstraintHandlers(Iterables.concat(
+    BuiltInConstraint.getAllBeanValidationAnnotations(), Collections.singletonList(CustomValidation.class)));
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldDecorateBuiltInConstraint() throws NoSuchFieldException {
+    // given
+    Pattern annotation = TestModelWithPatterns.class.getDeclaredField("addSlashPrefixSuffix")
+      .getAnnotation(Pattern.class);
+    // when
+    ConstraintHandlers.ConstraintHandler handler = handlers.get(Pattern.class);
+    // then
+    assertThat(handler.getName(), is("pattern"));
+    assertThat(toMap(handler.getSharedAttributes(annotation)), hasEntry("value", "/abc/"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldUseClassNameForCustomConstraint() throws NoSuchFieldException {
+    // given
+    CustomValidation annotation = TestModelWithCustomValidator.class.getDeclaredField("customValidation")
+      .getAnnotation(CustomValidation.class);
+    // when
+    ConstraintHandlers.ConstraintHandler handler = handlers.get(CustomValidation.class);
+    // then
+    assertThat(handler.getName(), is(CustomValidation.class.getName()));
+    assertThat(toMap(handler.getSharedAttributes(annotation)), is(anEmptyMap()));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldHaveNoHandlerForIrrelevantAnnotation() {
+    // given
+    // when
+    ConstraintHandlers.ConstraintHandler handler = handlers.get(Deprecated.class);
+    // then
+    assertThat(handler, is(nullValue()));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldShareAttributesOfEqualAnnotations() throws NoSuchFieldException {
+    // given
+    Pattern annotation = TestModelWithPatterns.class.getDeclaredField("addSlashPrefixSuffix")
+      .getAnnotation(Pattern.class);
+    ConstraintHandlers.ConstraintHandler handler = handlers.get(Pattern.class);
+    // when
+    SharedConstraintAttributes attributes = handler.getSharedAttributes(annotation);
+    // then
+    assertThat(handler.getSharedAttributes(annotation), is(sameInstance(attributes)));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldNotShareAttributesWithRegistryOfOwnInterner() throws NoSuchFieldException {
+    // given
+    Pattern annotation = TestModelWithPatterns.class.getDeclaredField("addSlashPrefixSuffix")
+      .getAnnotation(Pattern.class);
+    SharedConstraintAttributes attributes = handlers.get(Pattern.class).getSharedAttributes(annotation);
+    // when
+    ConstraintHandlers.ConstraintHandler handler = handlers.withOwnInterner().get(Pattern.class);
+    // then
+    assertThat(handler.getSharedAttributes(annotation), is(not(sameInstance(attributes))));
+    assertThat(toMap(handler.getSharedAttributes(annotation)), is(toMap(attributes)));
+  }
+
+  private Map<String, Object> toMap(MinimalObjectMap attributes) {
+    Map<String, Object> map = new HashMap<>();
+    attributes.entrySet().forEach(entry -> map.put(entry.getKey(), entry.getValue()));
+    return map;
+  }
+}
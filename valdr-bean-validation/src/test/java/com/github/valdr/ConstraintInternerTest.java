@@ -0,0 +1,100 @@
+package com.github.valdr;
+
+import com.github.valdr.decorator.PatternDecorator;
+import com.github.valdr.model.h.TestModelWithPatterns;
+import com.github.valdr.serializer.ConstraintsJsonWriter;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.constraints.Pattern;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests ConstraintInterner and SharedConstraintAttributes.
+ */
+public class ConstraintInternerTest {
+  private final ConstraintHandlers handlers = new ConstraintHandlers(Collections.singletonList(Pattern.class));
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldShareEqualConstraints() throws NoSuchFieldException {
+    // given
+    ConstraintHandlers.ConstraintHandler handler = handlers.get(Pattern.class);
+    // when
+    SharedConstraintAttributes first = handler.getSharedAttributes(patternOf("addSlashPrefixSuffix"));
+    SharedConstraintAttributes second = handler.getSharedAttributes(patternOf("addSlashPrefixSuffix"));
+    SharedConstraintAttributes other = handler.getSharedAttributes(patternOf("withBackslashes"));
+    // then
+    assertThat(second, sameInstance(first));
+    assertThat(other, not(sameInstance(first)));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldCompareArrayValuesByContent() {
+    // given
+    ConstraintInterner interner = new ConstraintInterner();
+    MinimalObjectMap attributes = new ConstraintAttributes(Collections.emptyMap());
+    // when
+    SharedConstraintAttributes first = interner.intern("size", new Object[]{new String[]{"a"}}, () -> attributes);
+    SharedConstraintAttributes second = interner.intern("size", new Object[]{new String[]{"a"}}, () -> attributes);
+    interner.intern("pattern", new Object[]{new String[]{"a"}}, () -> attributes);
+    // then
+    assertThat(second, sameInstance(first));
+    assertThat(interner.size(), is(2));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldRejectModification() throws NoSuchFieldException {
+    // given
+    SharedConstraintAttributes attributes = handlers.get(Pattern.class).getSharedAttributes(
+      patternOf("addSlashPrefixSuffix"));
+    // when & then
+    assertThrows(UnsupportedOperationException.class, () -> attributes.put("message", "other"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldEncodeSharedAttributesLikeDecoratedAttributes() throws NoSuchFieldException {
+    for (boolean prettyPrint : new boolean[]{true, false}) {
+      // given
+      ConstraintsJsonWriter writer = new ConstraintsJsonWriter(prettyPrint);
+      Pattern annotation = patternOf("withBackslashes");
+      SharedConstraintAttributes shared = handlers.get(Pattern.class).getSharedAttributes(annotation);
+      // when
+      String json = writer.writeAsString(modelWith(shared));
+      String again = writer.writeAsString(modelWith(shared));
+      // then
+      String expected = writer.writeAsString(modelWith(new PatternDecorator(new ConstraintAttributes(annotation))));
+      assertThat(json, is(expected));
+      assertThat(again, is(expected));
+    }
+  }
+
+  private Map<String, ClassConstraints> modelWith(MinimalObjectMap attributes) {
+    FieldConstraints fieldConstraints = new FieldConstraints();
+    fieldConstraints.put("pattern", attributes);
+    ClassConstraints classConstraints = new ClassConstraints();
+    classConstraints.put("field", fieldConstraints);
+    return Collections.singletonMap("Type", classConstraints);
+  }
+
+  private Pattern patternOf(String fieldName) throws NoSuchFieldException {
+    return TestModelWithPatterns.class.getDeclaredField(fieldName).getAnnotation(Pattern.class);
+  }
+}
@@ -0,0 +1,173 @@
+package com.github.valdr;
+
+import com.github.valdr.model.validation.CustomValidation;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jakarta.validation.constraints.NotNull;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests ConstraintModelCache.
+ */
+public class ConstraintModelCacheTest {
+  @TempDir
+  Path cacheDirectory;
+  @TempDir
+  Path classesDirectory;
+  @TempDir
+  Path otherClassesDirectory;
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceSameDocumentWithAndWithoutCache() throws IOException {
+    // given
+    String uncachedJson = new ConstraintParser(options(false)).parse();
+    // when
+    String coldJson = new ConstraintParser(options(true)).parse();
+    String warmJson = new ConstraintParser(options(true)).parse();
+    // then
+    assertThat(coldJson, is(uncachedJson));
+    assertThat(warmJson, is(uncachedJson));
+    assertThat(cacheFiles().isEmpty(), is(false));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReuseCachedConstraintsOfUnchangedRoot() throws IOException {
+    // given
+    new ConstraintParser(options(true)).parse();
+    for (Path cacheFile : cacheFiles()) {
+      String content = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+      Files.write(cacheFile, content.replace("{jakarta.validation.constraints.NotNull.message}", "from cache")
+        .getBytes(StandardCharsets.UTF_8));
+    }
+    // when
+    String json = new ConstraintParser(options(true)).parse();
+    // then
+    assertThat(json, containsString("from cache"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldParseChangedRootAgain() throws IOException {
+    // given
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList("sample"));
+    options.setCacheDirectory(cacheDirectory.toString());
+    compile("package sample; public class Person { @jakarta.validation.constraints.Size(max = 3) String name; }");
+    String json = parseWithClassesDirectory(options);
+    // when
+    compile("package sample; public class Person { @jakarta.validation.constraints.Size(max = 5) String name; }");
+    Path classFile = classesDirectory.resolve("sample/Person.class");
+    Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 10000));
+    String changedJson = parseWithClassesDirectory(options);
+    // then
+    assertThat(json, containsString("\"max\" : 3"));
+    assertThat(changedJson, containsString("\"max\" : 5"));
+    assertThat(changedJson, not(containsString("\"max\" : 3")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldLetFirstRootWinForSameClassNameWhetherCachedOrParsed() throws IOException {
+    // given
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList("sample"));
+    options.setCacheDirectory(cacheDirectory.toString());
+    compile("package sample; public class Person { @jakarta.validation.constraints.Size(max = 5) String name; }",
+      otherClassesDirectory);
+    parseWithClassesDirectories(options);
+    // when the first root gains a class of the same name while the second root is taken from the cache
+    compile("package sample; public class Person { @jakarta.validation.constraints.Size(max = 3) String name; }",
+      classesDirectory);
+    String warmJson = parseWithClassesDirectories(options);
+    options.setCacheDirectory("");
+    String uncachedJson = parseWithClassesDirectories(options);
+    // then
+    assertThat(uncachedJson, containsString("\"max\" : 3"));
+    assertThat(warmJson, is(uncachedJson));
+  }
+
+  private Options options(boolean cached) {
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList("com.github.valdr.model"));
+    options.setCustomAnnotationClasses(Lists.newArrayList(CustomValidation.class.getName()));
+    if (cached) {
+      options.setCacheDirectory(cacheDirectory.toString());
+    }
+    return options;
+  }
+
+  private List<Path> cacheFiles() throws IOException {
+    try (Stream<Path> files = Files.list(cacheDirectory)) {
+      return files.collect(Collectors.toList());
+    }
+  }
+
+  private void compile(String source) throws IOException {
+    compile(source, classesDirectory);
+  }
+
+  private void compile(String source, Path targetDirectory) throws IOException {
+    Path sourceFile = targetDirectory.resolve("Person.java");
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    String classPath = NotNull.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+    int result = compiler.run(null, null, null, "-d", targetDirectory.toString(), "-classpath", classPath,
+      sourceFile.toString());
+    assertThat(result, is(0));
+    Files.delete(sourceFile);
+  }
+
+  /**
+   * Parses with a fresh class loader so that changed classes are loaded again.
+   */
+  private String parseWithClassesDirectory(Options options) throws IOException {
+    return parseWith(options, classesDirectory);
+  }
+
+  private String parseWithClassesDirectories(Options options) throws IOException {
+    return parseWith(options, classesDirectory, otherClassesDirectory);
+  }
+
+  private String parseWith(Options options, Path... directories) throws IOException {
+    URL[] urls = new URL[directories.length];
+    for (int i = 0; i < directories.length; i++) {
+      urls[i] = directories[i].toUri().toURL();
+    }
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(urls, contextClassLoader)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      return new ConstraintParser(options).parse();
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+}
@@ -16,7 +16,9 @@ import com.github.valdr.model.validation.CustomValidation;
 import com.google.common.collect.Lists;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -218,6 +220,60 @@ public class ConstraintParserTest {
     assertThat(json, containsString("/\\\\\\\\abc\\\\./")); // JSON needs to escape \ -> double escape here
   }
 
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceSameDocumentAsStringBytesAndStream() throws IOException {
+    // given
+    parserConfiguredFor(Lists.newArrayList(TestModelWithPatterns.class.getPackage().getName()), emptyStringList());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    // when
+    String json = parser.parse();
+    byte[] bytes = parser.parseToBytes();
+    parser.parse(outputStream);
+    // then
+    assertThat(bytes, is(json.getBytes(StandardCharsets.UTF_8)));
+    assertThat(outputStream.toByteArray(), is(bytes));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceMinifiedJsonIfPrettyPrintDisabled() {
+    // given
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList(TestModelWithASingleAnnotatedMember.class.getPackage().getName()));
+    options.setPrettyPrint(false);
+    parser = new ConstraintParser(options);
+    // when
+    String json = parser.parse();
+    // then
+    assertThat(json, is("{\"" + TestModelWithASingleAnnotatedMember.class.getSimpleName() + "\":{\"notNullString\":" +
+      "{\"required\":{\"message\":\"{jakarta.validation.constraints.NotNull.message}\"}}}}"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceSameDocumentIfExtractingInParallel() {
+    // given
+    parserConfiguredFor(Lists.newArrayList("com.github.valdr.model"), Lists.newArrayList(CustomValidation.class
+      .getName()));
+    String sequentialJson = parser.parse();
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList("com.github.valdr.model"));
+    options.setCustomAnnotationClasses(Lists.newArrayList(CustomValidation.class.getName()));
+    options.setParallelism(4);
+    parser = new ConstraintParser(options);
+    // when
+    String parallelJson = parser.parse();
+    // then
+    assertThat(parallelJson, is(sequentialJson));
+  }
+
   private void parserConfiguredFor(List<String> modelPackages, List<String> customAnnotationClasses) {
     Options options = new Options();
     options.setModelPackages(modelPackages);
@@ -0,0 +1,78 @@
+package com.github.valdr;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests ContentEncoding.
+ */
+public class ContentEncodingTest {
+  private static final byte[] CONTENT = "{ \"foo\" : \"bar\" }".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldNegotiateIdentityIfNoAcceptEncoding() {
+    assertThat(ContentEncoding.negotiate(null), is(ContentEncoding.IDENTITY));
+    assertThat(ContentEncoding.negotiate(""), is(ContentEncoding.IDENTITY));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldPreferGzipOverDeflate() {
+    assertThat(ContentEncoding.negotiate("deflate, gzip"), is(ContentEncoding.GZIP));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldRespectQualityValues() {
+    assertThat(ContentEncoding.negotiate("gzip;q=0.5, deflate"), is(ContentEncoding.DEFLATE));
+    assertThat(ContentEncoding.negotiate("gzip;q=0, br"), is(ContentEncoding.IDENTITY));
+    assertThat(ContentEncoding.negotiate("identity;q=0, *;q=0.1"), is(ContentEncoding.GZIP));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldFallBackToIdentityForUnsupportedCodings() {
+    assertThat(ContentEncoding.negotiate("br, zstd"), is(ContentEncoding.IDENTITY));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldEncodeReversibly() throws IOException {
+    assertThat(new GZIPInputStream(new ByteArrayInputStream(ContentEncoding.GZIP.encode(CONTENT))).readAllBytes(),
+      is(CONTENT));
+    assertThat(new InflaterInputStream(new ByteArrayInputStream(ContentEncoding.DEFLATE.encode(CONTENT)))
+      .readAllBytes(), is(CONTENT));
+    assertThat(ContentEncoding.IDENTITY.encode(CONTENT), is(CONTENT));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldEncodeReversiblyAtDefaultLevel() throws IOException {
+    assertThat(new GZIPInputStream(new ByteArrayInputStream(ContentEncoding.GZIP.encode(CONTENT,
+      Deflater.DEFAULT_COMPRESSION))).readAllBytes(), is(CONTENT));
+    assertThat(new InflaterInputStream(new ByteArrayInputStream(ContentEncoding.DEFLATE.encode(CONTENT,
+      Deflater.DEFAULT_COMPRESSION))).readAllBytes(), is(CONTENT));
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.valdr;
+
+import com.github.valdr.model.a.TestModelWithASingleAnnotatedMember;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests FieldExclusions.
+ */
+public class FieldExclusionsTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldExcludeConfiguredField() throws NoSuchFieldException {
+    // given
+    FieldExclusions exclusions = new FieldExclusions(Lists.newArrayList(TestModelWithASingleAnnotatedMember.class
+      .getName() + "#notNullString"));
+    // when
+    // then
+    assertThat(exclusions.isExcluded(field("notNullString")), is(true));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldExcludeFieldsMatchingPattern() throws NoSuchFieldException {
+    // given
+    FieldExclusions exclusions = new FieldExclusions(Lists.newArrayList("com.github.valdr.**.*Annotated*#notNull*"));
+    // when
+    // then
+    assertThat(exclusions.isExcluded(field("notNullString")), is(true));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldNotExcludeFieldsOfOtherClassesOrWithOtherNames() throws NoSuchFieldException {
+    // given
+    FieldExclusions exclusions = new FieldExclusions(Lists.newArrayList("com.github.valdr.model.b.*#notNull*",
+      TestModelWithASingleAnnotatedMember.class.getName() + "#other*", "notNullString", ""));
+    // when
+    // then
+    assertThat(exclusions.isExcluded(field("notNullString")), is(false));
+  }
+
+  private Field field(String name) throws NoSuchFieldException {
+    return TestModelWithASingleAnnotatedMember.class.getDeclaredField(name);
+  }
+}
@@ -0,0 +1,82 @@
+package com.github.valdr;
+
+import com.github.valdr.decorator.PatternDecorator;
+import com.github.valdr.model.h.TestModelWithPatterns;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.constraints.Pattern;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests FrozenMap and freezing the constraint model.
+ */
+public class FrozenMapTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldKeepIterationOrderAndEntries() {
+    // given
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, i);
+    }
+    // when
+    Map<String, Integer> frozen = FrozenMap.of(map);
+    // then
+    assertThat(new ArrayList<>(frozen.entrySet()), is(new ArrayList<>(map.entrySet())));
+    assertThat(frozen.get("key42"), is(42));
+    assertThat(frozen.get("other"), is(nullValue()));
+    assertThat(frozen, is(map));
+    assertThat(FrozenMap.of(frozen), sameInstance(frozen));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldRejectModification() {
+    // given
+    Map<String, Integer> frozen = FrozenMap.of(new HashMap<>());
+    // when & then
+    assertThrows(UnsupportedOperationException.class, () -> frozen.put("key", 1));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldFreezeClassConstraintsWithDecoratorsAppliedOnce() throws NoSuchFieldException {
+    // given
+    ConstraintAttributes attributes = new ConstraintAttributes(TestModelWithPatterns.class
+      .getDeclaredField("addSlashPrefixSuffix").getAnnotation(Pattern.class));
+    FieldConstraints fieldConstraints = new FieldConstraints();
+    fieldConstraints.put("pattern", new PatternDecorator(attributes));
+    ClassConstraints classConstraints = new ClassConstraints();
+    classConstraints.put("field", fieldConstraints);
+    // when
+    classConstraints.freeze();
+    // then
+    MinimalObjectMap frozen = fieldConstraints.entrySet().iterator().next().getValue();
+    assertThat(frozen, instanceOf(SharedConstraintAttributes.class));
+    assertThat(toMap(frozen).get("value"), is("/abc/"));
+    assertThrows(UnsupportedOperationException.class, () -> classConstraints.put("other", new FieldConstraints()));
+    assertThrows(UnsupportedOperationException.class, () -> fieldConstraints.put("other", frozen));
+  }
+
+  private Map<String, Object> toMap(MinimalObjectMap attributes) {
+    Map<String, Object> map = new HashMap<>();
+    attributes.entrySet().forEach(entry -> map.put(entry.getKey(), entry.getValue()));
+    return map;
+  }
+}
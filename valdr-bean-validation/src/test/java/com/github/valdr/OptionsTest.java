@@ -27,4 +27,61 @@ public class OptionsTest {
       assertThat(e.getMessage(), is("Model package names must not be empty."));
     }
   }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldComplainAboutInvalidLastModified() {
+    // given
+    Options options = new Options();
+    options.getModelPackages().add("com.github.valdr.model");
+    options.setLastModified("yesterday");
+    // when
+    try {
+      options.validate();
+      fail("Last modified must be an ISO-8601 instant");
+    } catch (Options.InvalidConfigurationException e) {
+      // then
+      assertThat(e.getMessage(), is("Last modified 'yesterday' is not an ISO-8601 instant."));
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldComplainAboutParallelismBelowOne() {
+    // given
+    Options options = new Options();
+    options.getModelPackages().add("com.github.valdr.model");
+    options.setParallelism(0);
+    // when
+    try {
+      options.validate();
+      fail("Parallelism must be at least 1");
+    } catch (Options.InvalidConfigurationException e) {
+      // then
+      assertThat(e.getMessage(), is("Parallelism must be at least 1."));
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldComplainAboutMissingPrettyPrint() {
+    // given
+    Options options = new Options();
+    options.getModelPackages().add("com.github.valdr.model");
+    options.setPrettyPrint(null);
+    // when
+    try {
+      options.validate();
+      fail("Pretty print must be set");
+    } catch (Options.InvalidConfigurationException e) {
+      // then
+      assertThat(e.getMessage(), is("Pretty print must be either true or false."));
+    }
+  }
 }
@@ -0,0 +1,45 @@
+package com.github.valdr;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests PackageTrie.
+ */
+public class PackageTrieTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldDropSubPackagesOfOtherPackages() {
+    // given
+    PackageTrie trie = new PackageTrie(Lists.newArrayList("com.acme.orders.model", "org.example", " com.acme. ",
+      "com.acme.billing", "", "org.example"));
+    // when
+    // then
+    assertThat(trie.getPackageNames(), is(Arrays.asList("com.acme", "org.example")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldContainClassesOfPackagesAndSubPackages() {
+    // given
+    PackageTrie trie = new PackageTrie(Lists.newArrayList("com.acme", "org.example.model"));
+    // when
+    // then
+    assertThat(trie.contains("com.acme.Person.class"), is(true));
+    assertThat(trie.contains("com.acme.orders.Order.class"), is(true));
+    assertThat(trie.contains("org.example.model.Address"), is(true));
+    assertThat(trie.contains("org.example.Address.class"), is(false));
+    assertThat(trie.contains("com.acmex.Person.class"), is(false));
+    assertThat(trie.contains("com.Person.class"), is(false));
+  }
+}
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -116,6 +117,27 @@ public class ValdrBeanValidationTest {
     assertThat(FileUtils.readFileToString(outputTempFile, Charset.defaultCharset()), is("{ }"));
   }
 
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldKeepExistingOutputFileIfParsingFails() throws IOException {
+    // given
+    File outputTempFile = File.createTempFile("output", "txt");
+    FileUtils.writeStringToFile(outputTempFile, "previous", Charset.defaultCharset());
+    // no type name can be chosen for the found classes
+    String[] args = {"-cf", createTempFile("{\"modelPackages\":[\"com.github.valdr.model.a\"]," +
+      "\"outputFullTypeName\":null,\"outputFile\":\"" + outputTempFile.getAbsolutePath() + "\"}")};
+
+    // when
+    assertThrows(RuntimeException.class, () -> ValdrBeanValidation.main(args));
+
+    // then
+    assertThat(FileUtils.readFileToString(outputTempFile, Charset.defaultCharset()), is("previous"));
+    assertThat(outputTempFile.getParentFile().list((directory, name) -> name.startsWith(outputTempFile.getName()) &&
+      name.endsWith(".tmp")).length, is(0));
+  }
+
   private String createTempFile(String string) throws IOException {
     File tempFile = File.createTempFile("valdr", "json");
     FileWriter writer = new FileWriter(tempFile);
@@ -0,0 +1,169 @@
+package com.github.valdr;
+
+import com.github.valdr.serializer.ConstraintsJsonWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests ValidationRulesCache.
+ */
+public class ValidationRulesCacheTest {
+  private final ConstraintParser parser = mock(ConstraintParser.class);
+  private final ConstraintsJsonWriter writer = new ConstraintsJsonWriter(true);
+  private final CountDownLatch buildStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseBuild = new CountDownLatch(1);
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldCoalesceConcurrentBuilds() throws Exception {
+    // given
+    givenBlockingParser();
+    ValidationRulesCache cache = new ValidationRulesCache(parser, writer, true, 10000);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<ValidationRulesSnapshot>> results = new ArrayList<>();
+
+    // when
+    try {
+      results.add(executor.submit(cache::get));
+      buildStarted.await(10, TimeUnit.SECONDS);
+      for (int i = 0; i < 7; i++) {
+        results.add(executor.submit(cache::get));
+      }
+      releaseBuild.countDown();
+
+      // then
+      ValidationRulesSnapshot first = results.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<ValidationRulesSnapshot> result : results) {
+        assertThat(result.get(10, TimeUnit.SECONDS), is(sameInstance(first)));
+      }
+      verify(parser, times(1)).parseClasses();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldGiveUpWaitingAfterTimeout() throws Exception {
+    // given
+    givenBlockingParser();
+    ValidationRulesCache cache = new ValidationRulesCache(parser, writer, true, 10);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // when
+    try {
+      Future<ValidationRulesSnapshot> build = executor.submit(cache::get);
+      buildStarted.await(10, TimeUnit.SECONDS);
+
+      // then
+      assertThrows(ValidationRulesCache.BuildTimeoutException.class, cache::get);
+      releaseBuild.countDown();
+      assertThat(cache.get(), is(sameInstance(build.get(10, TimeUnit.SECONDS))));
+      verify(parser, times(1)).parseClasses();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldNotCacheBuildInvalidatedWhileInFlight() throws Exception {
+    // given
+    givenBlockingParser();
+    ValidationRulesCache cache = new ValidationRulesCache(parser, writer, true, 10000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // when
+    try {
+      Future<ValidationRulesSnapshot> build = executor.submit(cache::get);
+      buildStarted.await(10, TimeUnit.SECONDS);
+      cache.invalidate();
+      releaseBuild.countDown();
+      build.get(10, TimeUnit.SECONDS);
+      cache.get();
+
+      // then
+      verify(parser, times(2)).parseClasses();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldPatchCachedDocumentWithChangedClasses() {
+    // given
+    SortedMap<String, ConstraintParser.ParsedClass> parsedClasses = new TreeMap<>();
+    parsedClasses.put("a.Person", parsedClass("Person", "name", 3));
+    parsedClasses.put("a.Address", parsedClass("Address", "street", 5));
+    parsedClasses.put("b.Order", parsedClass("Order", "number", 7));
+    given(parser.parseClasses()).willReturn(parsedClasses);
+    ValidationRulesCache cache = new ValidationRulesCache(parser, writer, true, 10000);
+    cache.get();
+    ConstraintParser.ParsedClass changedPerson = parsedClass("Person", "name", 4);
+    given(parser.parseChangedClasses(Collections.singleton("a.Person"))).willReturn(
+      Collections.singletonMap("a.Person", Optional.of(changedPerson)));
+
+    // when
+    cache.update(Collections.singleton("a.Person"), Collections.singleton("b.Order"));
+
+    // then
+    SortedMap<String, ConstraintParser.ParsedClass> expectedClasses = new TreeMap<>(parsedClasses);
+    expectedClasses.put("a.Person", changedPerson);
+    expectedClasses.remove("b.Order");
+    byte[] expectedJson = writer.writeAsBytes(ConstraintParser.byTypeName(expectedClasses,
+      ConstraintParser.ParsedClass::getTypeName, ConstraintParser.ParsedClass::getConstraints));
+    assertThat(new String(cache.get().getJson(ContentEncoding.IDENTITY), StandardCharsets.UTF_8),
+      is(new String(expectedJson, StandardCharsets.UTF_8)));
+    verify(parser, times(1)).parseClasses();
+  }
+
+  private ConstraintParser.ParsedClass parsedClass(String typeName, String fieldName, int max) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("max", max);
+    FieldConstraints fieldConstraints = new FieldConstraints();
+    fieldConstraints.put("size", new ConstraintAttributes(attributes));
+    ClassConstraints classConstraints = new ClassConstraints();
+    classConstraints.put(fieldName, fieldConstraints);
+    return new ConstraintParser.ParsedClass(typeName, classConstraints);
+  }
+
+  private void givenBlockingParser() {
+    given(parser.parseClasses()).willAnswer(invocation -> {
+      buildStarted.countDown();
+      releaseBuild.await(10, TimeUnit.SECONDS);
+      return new TreeMap<>();
+    });
+  }
+}
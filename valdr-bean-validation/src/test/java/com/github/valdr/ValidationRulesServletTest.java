@@ -1,29 +1,42 @@
 package com.github.valdr;
 
+import com.github.valdr.serializer.ConstraintsJsonWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
 
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests ValidationRulesServlet.
  */
 public class ValidationRulesServletTest {
+  private static final String LS = System.lineSeparator();
 
   private final ValidationRulesServlet servlet = new ValidationRulesServlet();
   private ServletConfig servletConfig;
@@ -111,6 +124,437 @@ public class ValidationRulesServletTest {
     assertThat(response.getStatus(), is(200));
   }
 
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldParseOnlyOnceIfCacheEnabled() throws IOException, ServletException {
+    // given
+    ConstraintParser parser = givenParserReturningTypes();
+    servlet.init(servletConfig);
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, true));
+
+    // when
+    servlet.doGet(request, response);
+    servlet.doGet(request, new MockHttpServletResponse());
+
+    // then
+    verify(parser, times(1)).parseClasses();
+    assertThat(response.getContentAsString(), is("{ }"));
+    assertThat(response.getContentLength(), is(3));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldParseAgainAfterCacheInvalidation() throws IOException, ServletException {
+    // given
+    ConstraintParser parser = givenParserReturningTypes();
+    servlet.init(servletConfig);
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, true));
+    servlet.doGet(request, response);
+
+    // when
+    servlet.invalidateCache();
+    servlet.doGet(request, new MockHttpServletResponse());
+
+    // then
+    verify(parser, times(2)).parseClasses();
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldParseUponEachRequestIfCacheDisabled() throws IOException, ServletException {
+    // given
+    ConstraintParser parser = givenParserReturningTypes();
+    given(servletConfig.getInitParameter("cacheRules")).willReturn("false");
+    servlet.init(servletConfig);
+    assertThat(((ValidationRulesCache) ReflectionTestUtils.getField(servlet, "rulesCache")).isEnabled(), is(false));
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, false));
+
+    // when
+    servlet.doGet(request, response);
+    servlet.doGet(request, new MockHttpServletResponse());
+
+    // then
+    verify(parser, times(2)).parseClasses();
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendValidatorHeaders() throws IOException, ServletException {
+    // given
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"],\n" +
+      "  \"lastModified\": \"2014-06-27T10:15:30Z\"\n" +
+      "}");
+    servlet.init(servletConfig);
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getHeader("ETag"), notNullValue());
+    assertThat(response.getDateHeader("Last-Modified"), is(1403864130000L));
+    assertThat(response.getHeader("Cache-Control"), nullValue());
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendCacheControlHeaderIfConfigured() throws IOException, ServletException {
+    // given
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"],\n" +
+      "  \"cacheControlMaxAge\": 3600\n" +
+      "}");
+    servlet.init(servletConfig);
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getHeader("Cache-Control"), is("max-age=3600"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendNotModifiedForMatchingEtag() throws IOException, ServletException {
+    // given
+    ConstraintParser parser = givenParserReturningTypes();
+    servlet.init(servletConfig);
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, true));
+    servlet.doGet(request, response);
+    MockHttpServletRequest conditionalRequest = new MockHttpServletRequest();
+    conditionalRequest.addHeader("If-None-Match", "\"foo\", W/" + response.getHeader("ETag"));
+    MockHttpServletResponse conditionalResponse = new MockHttpServletResponse();
+
+    // when
+    servlet.doGet(conditionalRequest, conditionalResponse);
+
+    // then
+    verify(parser, times(1)).parseClasses();
+    assertThat(conditionalResponse.getStatus(), is(304));
+    assertThat(conditionalResponse.getContentLength(), is(0));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendDocumentForStaleEtag() throws IOException, ServletException {
+    // given
+    givenParserReturningTypes();
+    servlet.init(servletConfig);
+    request.addHeader("If-None-Match", "\"foo\"");
+    request.addHeader("If-Modified-Since", System.currentTimeMillis() + 60000);
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getStatus(), is(200));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendNotModifiedIfNotModifiedSince() throws IOException, ServletException {
+    // given
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"],\n" +
+      "  \"lastModified\": \"2014-06-27T10:15:30Z\"\n" +
+      "}");
+    servlet.init(servletConfig);
+    request.addHeader("If-Modified-Since", 1403864130000L);
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getStatus(), is(304));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendGzipEncodedDocumentIfAccepted() throws IOException, ServletException {
+    // given
+    ConstraintParser parser = givenParserReturningTypes("foo");
+    servlet.init(servletConfig);
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, true));
+    request.addHeader("Accept-Encoding", "gzip, deflate");
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    byte[] body = response.getContentAsByteArray();
+    assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+    assertThat(response.getHeader("Vary"), is("Accept-Encoding"));
+    assertThat(response.getContentLength(), is(body.length));
+    assertThat(new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(),
+      StandardCharsets.UTF_8), is("{" + LS + "  \"foo\" : { }" + LS + "}"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendDifferentEtagsPerEncoding() throws IOException, ServletException {
+    // given
+    givenParserReturningTypes();
+    servlet.init(servletConfig);
+    request.addHeader("Accept-Encoding", "deflate");
+    MockHttpServletResponse identityResponse = new MockHttpServletResponse();
+
+    // when
+    servlet.doGet(request, response);
+    servlet.doGet(new MockHttpServletRequest(), identityResponse);
+
+    // then
+    assertThat(response.getHeader("Content-Encoding"), is("deflate"));
+    assertThat(identityResponse.getHeader("Content-Encoding"), nullValue());
+    String identityEtag = identityResponse.getHeader("ETag");
+    assertThat(response.getHeader("ETag"), is(identityEtag.substring(0, identityEtag.length() - 1) + "-deflate\""));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendOnlyRequestedTypes() throws IOException, ServletException {
+    // given
+    ConstraintParser parser = givenParserReturningTypes("Person", "Address", "Order");
+    servlet.init(servletConfig);
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, true));
+    request.setParameter("types", "Order, Person,Unknown,Order");
+    request.addHeader("Accept-Encoding", "gzip");
+    MockHttpServletResponse fullResponse = new MockHttpServletResponse();
+
+    // when
+    servlet.doGet(request, response);
+    servlet.doGet(new MockHttpServletRequest(), fullResponse);
+
+    // then
+    assertThat(response.getHeader("Content-Encoding"), nullValue());
+    assertThat(response.getContentAsString(), is("{" + LS + "  \"Order\" : { }," + LS + "  \"Person\" : { }" + LS +
+      "}"));
+    assertThat(response.getHeader("ETag"), not(fullResponse.getHeader("ETag")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendNotModifiedForMatchingEtagOfRequestedTypes() throws IOException, ServletException {
+    // given
+    givenParserReturningTypes("Person", "Address");
+    servlet.init(servletConfig);
+    request.setParameter("types", "Person");
+    servlet.doGet(request, response);
+    MockHttpServletRequest conditionalRequest = new MockHttpServletRequest();
+    conditionalRequest.setParameter("types", "Person");
+    conditionalRequest.addHeader("If-None-Match", response.getHeader("ETag"));
+    MockHttpServletResponse conditionalResponse = new MockHttpServletResponse();
+
+    // when
+    servlet.doGet(conditionalRequest, conditionalResponse);
+
+    // then
+    assertThat(conditionalResponse.getStatus(), is(304));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldNotSendNotModifiedForEtagOfOtherRequestedTypes() throws IOException, ServletException {
+    // given
+    givenParserReturningTypes("Person", "Address");
+    servlet.init(servletConfig);
+    request.setParameter("types", "Person");
+    servlet.doGet(request, response);
+    MockHttpServletRequest conditionalRequest = new MockHttpServletRequest();
+    conditionalRequest.setParameter("types", "Address");
+    conditionalRequest.addHeader("If-None-Match", response.getHeader("ETag"));
+    MockHttpServletResponse conditionalResponse = new MockHttpServletResponse();
+
+    // when
+    servlet.doGet(conditionalRequest, conditionalResponse);
+
+    // then
+    assertThat(conditionalResponse.getStatus(), is(200));
+    assertThat(conditionalResponse.getHeader("ETag"), not(response.getHeader("ETag")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldSendServiceUnavailableIfBuildTakesTooLong() throws IOException, ServletException {
+    // given
+    givenParserReturningTypes();
+    servlet.init(servletConfig);
+    ValidationRulesCache rulesCache = mock(ValidationRulesCache.class);
+    given(rulesCache.get()).willThrow(new ValidationRulesCache.BuildTimeoutException(30000));
+    ReflectionTestUtils.setField(servlet, "rulesCache", rulesCache);
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getStatus(), is(503));
+    assertThat(response.getHeader("Retry-After"), is("30"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldWarmUpInBackgroundIfConfigured() throws IOException, ServletException, InterruptedException {
+    // given
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"]\n" +
+      "}");
+    given(servletConfig.getInitParameter("warmUp")).willReturn("true");
+
+    // when
+    servlet.init(servletConfig);
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!servlet.isReady() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    // then
+    assertThat(servlet.isReady(), is(true));
+    Object rulesCache = ReflectionTestUtils.getField(servlet, "rulesCache");
+    assertThat(ReflectionTestUtils.getField(rulesCache, "snapshot"), notNullValue());
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldStayNotReadyIfWarmUpFailsAndStopRetryingOnDestroy() throws IOException, ServletException,
+    InterruptedException {
+    // given
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"]\n" +
+      "}");
+    given(servletConfig.getInitParameter("warmUp")).willReturn("true");
+    ConstraintParser parser = mock(ConstraintParser.class);
+    given(parser.parseClasses()).willThrow(new IllegalStateException("scan failed"));
+    servlet.init(servletConfig);
+    destroyWarmUp();
+    ReflectionTestUtils.setField(servlet, "rulesCache", newRulesCache(parser, true));
+
+    // when
+    ReflectionTestUtils.invokeMethod(servlet, "startWarmUp");
+    Thread warmUp = (Thread) ReflectionTestUtils.getField(servlet, "warmUpThread");
+    verify(parser, timeout(10000)).parseClasses();
+    servlet.destroy();
+    warmUp.join(10000);
+
+    // then
+    assertThat(servlet.isReady(), is(false));
+    assertThat(warmUp.isAlive(), is(false));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReportReadinessOnSubPath() throws IOException, ServletException {
+    // given
+    givenParserReturningTypes();
+    servlet.init(servletConfig);
+    request.setPathInfo("/ready");
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getStatus(), is(200));
+    assertThat(response.getContentAsString(), is("ready"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldNotBeReadyIfNotCorrectlyConfigured() throws IOException, ServletException {
+    // given mandatory 'modelPackages' is missing
+    givenThisConfiguration("{ }");
+    servlet.init(servletConfig);
+    request.setPathInfo("/ready");
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getStatus(), is(503));
+    assertThat(servlet.isReady(), is(false));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReportInvalidConfigurationIfPrettyPrintIsNull() throws IOException, ServletException {
+    // given
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"],\n" +
+      "  \"prettyPrint\": null\n" +
+      "}");
+    servlet.init(servletConfig);
+
+    // when
+    servlet.doGet(request, response);
+
+    // then
+    assertThat(response.getStatus(), is(500));
+    assertThat(response.getErrorMessage(), containsString("Pretty print"));
+    assertThat(servlet.isReady(), is(false));
+  }
+
+  private ConstraintParser givenParserReturningTypes(String... typeNames) throws IOException {
+    givenThisConfiguration("{\n" +
+      "  \"modelPackages\": [\"com.github.valdr.model.b\"]\n" +
+      "}");
+    SortedMap<String, ConstraintParser.ParsedClass> parsedClasses = new TreeMap<>();
+    for (String typeName : typeNames) {
+      parsedClasses.put(typeName, new ConstraintParser.ParsedClass(typeName, new ClassConstraints()));
+    }
+    ConstraintParser parser = mock(ConstraintParser.class);
+    given(parser.parseClasses()).willReturn(parsedClasses);
+    return parser;
+  }
+
+  /**
+   * Stops the warm-up started by {@code init} and waits until it has terminated.
+   */
+  private void destroyWarmUp() throws InterruptedException {
+    Thread warmUp = (Thread) ReflectionTestUtils.getField(servlet, "warmUpThread");
+    servlet.destroy();
+    warmUp.join(10000);
+    ReflectionTestUtils.setField(servlet, "ready", false);
+  }
+
+  private ValidationRulesCache newRulesCache(ConstraintParser parser, boolean enabled) {
+    return new ValidationRulesCache(parser, new ConstraintsJsonWriter(true), enabled, 1000);
+  }
+
   private void givenThisConfiguration(String jsonString) throws IOException {
     String configFile = createTempFile(jsonString);
     given(servletConfig.getInitParameter("configFile")).willReturn(configFile);
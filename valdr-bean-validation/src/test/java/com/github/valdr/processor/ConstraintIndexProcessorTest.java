@@ -0,0 +1,153 @@
+package com.github.valdr.processor;
+
+import com.github.valdr.ClasspathScanner;
+import com.github.valdr.Options;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jakarta.validation.constraints.NotNull;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests ConstraintIndexProcessor.
+ */
+public class ConstraintIndexProcessorTest {
+  @TempDir
+  Path outputDirectory;
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldIndexClassesWithConstrainedFields() throws IOException {
+    // given
+    List<JavaFileObject> sources = sampleSources();
+    // when
+    compile(sources, "-Avaldr.customAnnotationClasses=sample.Marker");
+    // then
+    assertThat(readIndex(), is(Arrays.asList("sample.Employee", "sample.Outer$Inner", "sample.Person",
+      "sample.WithConfiguredCustomAnnotation", "sample.WithCustomConstraint")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldRetainEntriesOfClassesNotCompiledAgain() throws IOException {
+    // given
+    compile(sampleSources());
+    // when
+    compile(Lists.newArrayList(source("sample.Person", "package sample; public class Person { String name; }"),
+      source("sample.Address", "package sample; public class Address { " +
+        "@jakarta.validation.constraints.NotNull String street; }")));
+    // then
+    assertThat(readIndex(), is(Arrays.asList("sample.Address", "sample.Employee", "sample.Outer$Inner",
+      "sample.WithCustomConstraint")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldDropEntriesOfDeletedClasses() throws IOException {
+    // given
+    compile(sampleSources());
+    Files.delete(outputDirectory.resolve("sample/Employee.class"));
+    // when
+    compile(Lists.newArrayList(source("sample.Address", "package sample; public class Address { " +
+      "@jakarta.validation.constraints.NotNull String street; }")));
+    // then
+    assertThat(readIndex(), is(Arrays.asList("sample.Address", "sample.Outer$Inner", "sample.Person",
+      "sample.WithCustomConstraint")));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldLetClasspathScannerUseIndex() throws IOException {
+    // given
+    compile(sampleSources());
+    Options options = new Options();
+    options.setModelPackages(Lists.newArrayList("sample"));
+    options.setExcludedClasses(Lists.newArrayList("sample.Employee"));
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDirectory.toUri().toURL()},
+      contextClassLoader)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      // when
+      Set<Class<?>> classesToParse = new ClasspathScanner(options).findClassesToParse();
+      // then
+      assertThat(classesToParse.stream().map(Class::getName).collect(Collectors.toList()), containsInAnyOrder(
+        "sample.Outer$Inner", "sample.Person", "sample.WithCustomConstraint"));
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  private List<JavaFileObject> sampleSources() {
+    return Lists.newArrayList(
+      source("sample.Person", "package sample; public class Person { " +
+        "@jakarta.validation.constraints.NotNull String name; }"),
+      source("sample.Employee", "package sample; public class Employee extends Person { String department; }"),
+      source("sample.Dto", "package sample; public class Dto { @Deprecated String name; }"),
+      source("sample.Outer", "package sample; public class Outer { String name; " +
+        "public static class Inner { @jakarta.validation.constraints.Size(max = 3) String code; } }"),
+      source("sample.CustomConstraint", "package sample; " +
+        "@jakarta.validation.Constraint(validatedBy = {}) " +
+        "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) " +
+        "public @interface CustomConstraint { String message() default \"\"; Class<?>[] groups() default {}; " +
+        "Class<? extends jakarta.validation.Payload>[] payload() default {}; }"),
+      source("sample.WithCustomConstraint", "package sample; public class WithCustomConstraint { " +
+        "@CustomConstraint String value; }"),
+      source("sample.Marker", "package sample; public @interface Marker { }"),
+      source("sample.WithConfiguredCustomAnnotation", "package sample; public class WithConfiguredCustomAnnotation { " +
+        "@Marker String value; }"));
+  }
+
+  private JavaFileObject source(String className, String code) {
+    URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+    return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+
+  private void compile(List<JavaFileObject> sources, String... options) {
+    String classPath = outputDirectory + File.pathSeparator + NotNull.class.getProtectionDomain().getCodeSource()
+      .getLocation().getPath();
+    List<String> arguments = new ArrayList<>(Arrays.asList("-d", outputDirectory.toString(), "-classpath",
+      classPath));
+    arguments.addAll(Arrays.asList(options));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, arguments, null, sources);
+    task.setProcessors(Lists.newArrayList(new ConstraintIndexProcessor()));
+    assertThat(task.call(), is(true));
+  }
+
+  private List<String> readIndex() throws IOException {
+    return Files.readAllLines(outputDirectory.resolve(ClasspathScanner.INDEX_RESOURCE));
+  }
+}
@@ -0,0 +1,178 @@
+package com.github.valdr.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.github.valdr.ClassConstraints;
+import com.github.valdr.ConstraintAttributes;
+import com.github.valdr.FieldConstraints;
+import com.github.valdr.MinimalMap;
+import com.github.valdr.decorator.PatternDecorator;
+import com.github.valdr.model.a.TestModelWithASingleAnnotatedMember;
+import com.github.valdr.model.h.TestModelWithPatterns;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests {@link ConstraintsJsonWriter}.
+ */
+public class ConstraintsJsonWriterTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceEmptyJsonForEmptyModel() {
+    // given
+    Map<String, ClassConstraints> model = new HashMap<>();
+    // when
+    String json = new ConstraintsJsonWriter(true).writeAsString(model);
+    // then
+    assertThat(json, is("{ }"));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceSameOutputAsDatabindWhenPrettyPrinting() throws IOException {
+    // given
+    Map<String, ClassConstraints> model = largeModel();
+    // when
+    byte[] json = new ConstraintsJsonWriter(true).writeAsBytes(model);
+    // then
+    assertThat(json, is(databindWriter().withDefaultPrettyPrinter().writeValueAsBytes(model)));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceSameOutputAsDatabindWhenMinifying() throws IOException {
+    // given
+    Map<String, ClassConstraints> model = largeModel();
+    // when
+    byte[] json = new ConstraintsJsonWriter(false).writeAsBytes(model);
+    // then
+    assertThat(json, is(databindWriter().writeValueAsBytes(model)));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldProduceSameOutputForStringBytesAndStream() throws IOException {
+    // given
+    Map<String, ClassConstraints> model = largeModel();
+    ConstraintsJsonWriter writer = new ConstraintsJsonWriter(true);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    // when
+    writer.write(model, outputStream);
+    // then
+    assertThat(outputStream.toByteArray(), is(writer.writeAsBytes(model)));
+    assertThat(writer.writeAsString(model).getBytes(StandardCharsets.UTF_8), is(writer.writeAsBytes(model)));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldAssembleSameDocumentFromMembers() {
+    // given
+    Map<String, ClassConstraints> model = largeModel();
+    for (boolean prettyPrint : new boolean[]{true, false}) {
+      ConstraintsJsonWriter writer = new ConstraintsJsonWriter(prettyPrint);
+      // when
+      byte[] json = writer.assemble(writer.writeMembersAsBytes(model).values());
+      // then
+      assertThat(json, is(writer.writeAsBytes(model)));
+    }
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldAssembleDocumentForSubsetOfMembers() {
+    // given
+    Map<String, ClassConstraints> model = largeModel();
+    Map<String, ClassConstraints> subModel = new LinkedHashMap<>();
+    subModel.put("Type42", model.get("Type42"));
+    subModel.put("Type7", model.get("Type7"));
+    for (boolean prettyPrint : new boolean[]{true, false}) {
+      ConstraintsJsonWriter writer = new ConstraintsJsonWriter(prettyPrint);
+      Map<String, byte[]> members = writer.writeMembersAsBytes(model);
+      // when
+      byte[] json = writer.assemble(Arrays.asList(members.get("Type42"), members.get("Type7")));
+      // then
+      assertThat(json, is(writer.writeAsBytes(subModel)));
+      assertThat(writer.assemble(Collections.emptyList()), is(writer.writeAsBytes(new HashMap<>())));
+    }
+  }
+
+  /**
+   * Builds a model with thousands of classes whose constraint attributes cover all value types handled by the writer
+   * as well as some handed to databind.
+   */
+  private Map<String, ClassConstraints> largeModel() {
+    Map<String, ClassConstraints> model = new HashMap<>();
+    for (int i = 0; i < 3000; i++) {
+      ClassConstraints classConstraints = new ClassConstraints();
+      for (int j = 0; j < 5; j++) {
+        FieldConstraints fieldConstraints = new FieldConstraints();
+        ConstraintAttributes attributes = new ConstraintAttributes(annotationOf(TestModelWithASingleAnnotatedMember
+          .class, "notNullString", NotNull.class));
+        attributes.put("message", "Ünïcödé \"message\" \\ " + i);
+        attributes.put("int", i);
+        attributes.put("long", Long.MAX_VALUE - j);
+        attributes.put("short", (short) j);
+        attributes.put("double", i / 3d);
+        attributes.put("float", j / 7f);
+        attributes.put("boolean", i % 2 == 0);
+        attributes.put("strings", new String[]{"a", "b" + j});
+        attributes.put("emptyStrings", new String[0]);
+        attributes.put("flags", new Pattern.Flag[]{Pattern.Flag.CASE_INSENSITIVE});
+        attributes.put("class", String.class);
+        attributes.put("null", null);
+        fieldConstraints.put("custom", attributes);
+        fieldConstraints.put("pattern", new PatternDecorator(new ConstraintAttributes(annotationOf(
+          TestModelWithPatterns.class, "withBackslashes", Pattern.class))));
+        classConstraints.put("field" + j, fieldConstraints);
+      }
+      model.put("Type" + i, classConstraints);
+    }
+    return model;
+  }
+
+  private <A extends java.lang.annotation.Annotation> A annotationOf(Class<?> clazz, String field,
+    Class<A> annotationClass) {
+    try {
+      return clazz.getDeclaredField(field).getAnnotation(annotationClass);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private ObjectWriter databindWriter() {
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    SimpleModule module = new SimpleModule();
+    module.addSerializer(MinimalMap.class, new MinimalMapSerializer());
+    objectMapper.registerModule(module);
+
+    return objectMapper.writer();
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.valdr.thirdparty.spring;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures how {@link AnnotationUtils} scales when many threads look up annotations at the same time, as concurrent
+ * parsers or parallel extraction do. Each thread repeatedly searches an annotation on an interface method, which
+ * consults the annotated interface cache, and reads the attributes of an annotation, which consults the attribute
+ * method cache.
+ * <p>Not a unit test, run it manually: {@code java ... AnnotationUtilsContentionBenchmark [seconds per thread count]}.
+ */
+public final class AnnotationUtilsContentionBenchmark {
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+  private AnnotationUtilsContentionBenchmark() {
+  }
+
+  /**
+   * Runs the benchmark and prints the throughput per thread count.
+   *
+   * @param args optional number of seconds measured per thread count, default 3
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    long measureMillis = TimeUnit.SECONDS.toMillis(args.length > 0 ? Long.parseLong(args[0]) : 3);
+    Method method = Model.class.getMethod("getName");
+    Size size = Model.class.getDeclaredField("name").getAnnotation(Size.class);
+    // warm up
+    run(THREAD_COUNTS[THREAD_COUNTS.length - 1], measureMillis, method, size);
+    for (int threads : THREAD_COUNTS) {
+      long operations = run(threads, measureMillis, method, size);
+      System.out.printf("%d thread(s): %,d ops/ms%n", threads, operations / measureMillis);
+    }
+  }
+
+  private static long run(int threads, long measureMillis, Method method, Size size) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      long end = System.currentTimeMillis() + measureMillis;
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          long operations = 0;
+          while (System.currentTimeMillis() < end) {
+            for (int j = 0; j < 100; j++) {
+              if (AnnotationUtils.findAnnotation(method, NotNull.class) == null
+                || AnnotationUtils.getAnnotationAttributes(size).isEmpty()) {
+                throw new IllegalStateException("Annotation not found.");
+              }
+            }
+            operations += 100;
+          }
+          return operations;
+        }));
+      }
+      start.countDown();
+      long operations = 0;
+      for (Future<Long> result : results) {
+        operations += result.get();
+      }
+      return operations;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Interface with an annotated method, as found by the annotated interface cache.
+   */
+  interface Named {
+    @NotNull
+    String getName();
+  }
+
+  /**
+   * Implements the annotated method without repeating the annotation.
+   */
+  static class Model implements Named {
+    @Size(max = 10)
+    private String name;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.github.valdr.thirdparty.spring;
+
+import com.github.valdr.model.h.TestModelWithPatterns;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.constraints.Pattern;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests AnnotationUtils.
+ */
+public class AnnotationUtilsTest {
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldGetAllAnnotationAttributes() throws NoSuchFieldException {
+    // given
+    Pattern annotation = patternOf("addSlashPrefixSuffix");
+    // when
+    Map<String, Object> attributes = AnnotationUtils.getAnnotationAttributes(annotation);
+    // then
+    assertThat(attributes, hasEntry("regexp", (Object) "abc"));
+    assertThat(attributes, hasEntry("message", (Object) "{jakarta.validation.constraints.Pattern.message}"));
+    assertThat(attributes, hasKey("flags"));
+    assertThat(attributes, hasKey("groups"));
+    assertThat(attributes, hasKey("payload"));
+    assertThat(attributes.size(), is(5));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldGetClassValuesAsString() {
+    // given
+    Tagged annotation = TaggedModel.class.getAnnotation(Tagged.class);
+    // when
+    Map<String, Object> attributes = AnnotationUtils.getAnnotationAttributes(annotation, true);
+    // then
+    assertThat(attributes, hasEntry("type", (Object) String.class.getName()));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldGetValueOrNullForUnknownAttribute() throws NoSuchFieldException {
+    // given
+    Pattern annotation = patternOf("addSlashPrefixSuffix");
+    // when
+    Object regexp = AnnotationUtils.getValue(annotation, "regexp");
+    Object unknown = AnnotationUtils.getValue(annotation, "unknown");
+    // then
+    assertThat(regexp, is("abc"));
+    assertThat(unknown, is(nullValue()));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldGetDefaultValueOrNullForUnknownAttribute() {
+    // given
+    // when
+    Object message = AnnotationUtils.getDefaultValue(Pattern.class, "message");
+    Object unknown = AnnotationUtils.getDefaultValue(Pattern.class, "unknown");
+    // then
+    assertThat(message, is("{jakarta.validation.constraints.Pattern.message}"));
+    assertThat(unknown, is(nullValue()));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldReturnCopyOfArrayDefaultValue() {
+    // given
+    String[] first = (String[]) AnnotationUtils.getDefaultValue(Tagged.class);
+    // when
+    first[0] = "changed";
+    // then
+    String[] second = (String[]) AnnotationUtils.getDefaultValue(Tagged.class);
+    assertThat(second, arrayContaining("a", "b"));
+    assertThat((Object[]) AnnotationUtils.getDefaultValue(Pattern.class, "groups"), arrayWithSize(0));
+  }
+
+  /**
+   * See method name.
+   */
+  @Test
+  public void shouldFindAnnotationOnInterfaceMethod() throws NoSuchMethodException {
+    // given
+    Method method = TaggedModel.class.getMethod("getName");
+    // when
+    Tagged annotation = AnnotationUtils.findAnnotation(method, Tagged.class);
+    // then
+    assertThat(annotation, is(notNullValue()));
+    assertThat(AnnotationUtils.findAnnotation(TaggedModel.class.getMethod("toString"), Tagged.class),
+      is(nullValue()));
+  }
+
+  private Pattern patternOf(String fieldName) throws NoSuchFieldException {
+    return TestModelWithPatterns.class.getDeclaredField(fieldName).getAnnotation(Pattern.class);
+  }
+
+  /**
+   * Annotation with an array default value.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Tagged {
+    String[] value() default {"a", "b"};
+
+    Class<?> type() default String.class;
+  }
+
+  /**
+   * Interface with an annotated method.
+   */
+  interface Named {
+    @Tagged
+    String getName();
+  }
+
+  /**
+   * Implements the annotated method without repeating the annotation.
+   */
+  @Tagged
+  static class TaggedModel implements Named {
+    @Override
+    public String getName() {
+      return "name";
+    }
+  }
+}